@@ -0,0 +1,14 @@
+package com.highstakes.autointerface.benchmark;
+
+import com.highstakes.autointerface.AutoInterface;
+
+/**
+ * Service decorated by the decorator benchmarks.
+ */
+@AutoInterface(createDecorator = true, createDecoratorClass = true, createMetricsDecorator = true,
+    createInterceptingProxy = true, createSwappableDecorator = true)
+public class Calculator implements CalculatorInterface {
+  public int add(int left, int right) {
+    return left + right;
+  }
+}
@@ -0,0 +1,112 @@
+package com.highstakes.autointerface.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares sharing {@link Counters} through a coarse synchronized wrapper with the generated concurrent decorators:
+ * read/write locks, optimistic reads and optimistic reads with 16 stripes. Every operation is a read with a
+ * probability of 90%, on a random key. Runs on 8 and 32 threads through the nested subclasses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class ConcurrencyBenchmark {
+  private static final int READ_PERCENTAGE = 90;
+
+  private CountersInterface synchronizedCounters;
+  private CountersInterface readWriteLocked;
+  private OptimisticCountersInterface optimistic;
+  private OptimisticCountersInterface optimisticStriped;
+
+  @Threads(8)
+  public static class EightThreads extends ConcurrencyBenchmark {
+  }
+
+  @Threads(32)
+  public static class ThirtyTwoThreads extends ConcurrencyBenchmark {
+  }
+
+  @Setup
+  public void setUp() {
+    synchronizedCounters = new SynchronizedCounters(new Counters());
+    readWriteLocked = new CountersConcurrentDecorator(new Counters());
+    optimistic = new OptimisticCountersConcurrentDecorator(new OptimisticCounters());
+    optimisticStriped = new OptimisticCountersConcurrentDecorator(new OptimisticCounters(), 16);
+  }
+
+  @Benchmark
+  public long synchronizedWrapper() {
+    return call(synchronizedCounters);
+  }
+
+  @Benchmark
+  public long readWriteLock() {
+    return call(readWriteLocked);
+  }
+
+  @Benchmark
+  public long optimisticRead() {
+    return call(optimistic);
+  }
+
+  @Benchmark
+  public long optimisticReadStriped() {
+    return call(optimisticStriped);
+  }
+
+  private static long call(CountersInterface counters) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int key = random.nextInt(Counters.SIZE);
+    if (random.nextInt(100) < READ_PERCENTAGE) {
+      return counters.get(key);
+    }
+    counters.add(key, 1);
+    return key;
+  }
+
+  private static long call(OptimisticCountersInterface counters) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int key = random.nextInt(Counters.SIZE);
+    if (random.nextInt(100) < READ_PERCENTAGE) {
+      return counters.get(key);
+    }
+    counters.add(key, 1);
+    return key;
+  }
+
+  /**
+   * The coarse wrapper the generated decorators replace.
+   */
+  private static final class SynchronizedCounters implements CountersInterface {
+    private final CountersInterface delegate;
+
+    SynchronizedCounters(CountersInterface delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized long get(int key) {
+      return delegate.get(key);
+    }
+
+    @Override
+    public synchronized void add(int key, long delta) {
+      delegate.add(key, delta);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.highstakes.autointerface.benchmark;
+
+import com.highstakes.autointerface.AutoInterface;
+
+/**
+ * Counters that are not thread safe, shared by the concurrency benchmarks through generated concurrent decorators.
+ * Reads and writes are classified by the naming convention.
+ */
+@AutoInterface(createConcurrentDecorator = true)
+public class Counters implements CountersInterface {
+  static final int SIZE = 1024;
+
+  private final long[] values = new long[SIZE];
+
+  public long get(int key) {
+    return values[key];
+  }
+
+  public void add(int key, long delta) {
+    values[key] += delta;
+  }
+}
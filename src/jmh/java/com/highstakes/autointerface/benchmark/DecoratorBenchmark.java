@@ -0,0 +1,180 @@
+package com.highstakes.autointerface.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a call through stacked decorators generated as {@code CalculatorDecorator} interfaces, forwarding via
+ * {@code getDecoratedObject()}, with decorators extending the generated {@code AbstractCalculatorDecorator} class,
+ * forwarding via its final delegate field. Every layer is a different class, as with real decorators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DecoratorBenchmark {
+  @Param({"1", "3", "5"})
+  public int layers;
+
+  private CalculatorInterface interfaceDecorators;
+  private CalculatorInterface classDecorators;
+  private int left = 1;
+  private int right = 2;
+
+  @Setup
+  public void setUp() {
+    interfaceDecorators = new Calculator();
+    classDecorators = new Calculator();
+    for (int layer = 0; layer < layers; layer++) {
+      interfaceDecorators = interfaceDecorator(layer, interfaceDecorators);
+      classDecorators = classDecorator(layer, classDecorators);
+    }
+  }
+
+  @Benchmark
+  public int interfaceDecorators() {
+    return interfaceDecorators.add(left, right);
+  }
+
+  @Benchmark
+  public int classDecorators() {
+    return classDecorators.add(left, right);
+  }
+
+  private static CalculatorInterface interfaceDecorator(int layer, CalculatorInterface delegate) {
+    switch (layer) {
+      case 0:
+        return new InterfaceLayer0(delegate);
+      case 1:
+        return new InterfaceLayer1(delegate);
+      case 2:
+        return new InterfaceLayer2(delegate);
+      case 3:
+        return new InterfaceLayer3(delegate);
+      default:
+        return new InterfaceLayer4(delegate);
+    }
+  }
+
+  private static CalculatorInterface classDecorator(int layer, CalculatorInterface delegate) {
+    switch (layer) {
+      case 0:
+        return new ClassLayer0(delegate);
+      case 1:
+        return new ClassLayer1(delegate);
+      case 2:
+        return new ClassLayer2(delegate);
+      case 3:
+        return new ClassLayer3(delegate);
+      default:
+        return new ClassLayer4(delegate);
+    }
+  }
+
+  private static final class InterfaceLayer0 implements CalculatorDecorator {
+    private final CalculatorInterface delegate;
+
+    InterfaceLayer0(CalculatorInterface delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public CalculatorInterface getDecoratedObject() {
+      return delegate;
+    }
+  }
+
+  private static final class InterfaceLayer1 implements CalculatorDecorator {
+    private final CalculatorInterface delegate;
+
+    InterfaceLayer1(CalculatorInterface delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public CalculatorInterface getDecoratedObject() {
+      return delegate;
+    }
+  }
+
+  private static final class InterfaceLayer2 implements CalculatorDecorator {
+    private final CalculatorInterface delegate;
+
+    InterfaceLayer2(CalculatorInterface delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public CalculatorInterface getDecoratedObject() {
+      return delegate;
+    }
+  }
+
+  private static final class InterfaceLayer3 implements CalculatorDecorator {
+    private final CalculatorInterface delegate;
+
+    InterfaceLayer3(CalculatorInterface delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public CalculatorInterface getDecoratedObject() {
+      return delegate;
+    }
+  }
+
+  private static final class InterfaceLayer4 implements CalculatorDecorator {
+    private final CalculatorInterface delegate;
+
+    InterfaceLayer4(CalculatorInterface delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public CalculatorInterface getDecoratedObject() {
+      return delegate;
+    }
+  }
+
+  private static final class ClassLayer0 extends AbstractCalculatorDecorator {
+    ClassLayer0(CalculatorInterface delegate) {
+      super(delegate);
+    }
+  }
+
+  private static final class ClassLayer1 extends AbstractCalculatorDecorator {
+    ClassLayer1(CalculatorInterface delegate) {
+      super(delegate);
+    }
+  }
+
+  private static final class ClassLayer2 extends AbstractCalculatorDecorator {
+    ClassLayer2(CalculatorInterface delegate) {
+      super(delegate);
+    }
+  }
+
+  private static final class ClassLayer3 extends AbstractCalculatorDecorator {
+    ClassLayer3(CalculatorInterface delegate) {
+      super(delegate);
+    }
+  }
+
+  private static final class ClassLayer4 extends AbstractCalculatorDecorator {
+    ClassLayer4(CalculatorInterface delegate) {
+      super(delegate);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.highstakes.autointerface.benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares intercepting calls with a JDK dynamic proxy and with the generated {@code CalculatorInterceptingProxy}.
+ * Both interceptors count the calls of every method, the dynamic proxy by looking up the {@code Method} and boxing
+ * the arguments into an array, the generated proxy by the method ID. Run with {@code -prof gc} to compare the
+ * allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InterceptorBenchmark {
+  private CalculatorInterface calculator;
+  private CalculatorInterface dynamicProxy;
+  private CalculatorInterface interceptingProxy;
+  private int left = 1;
+  private int right = 2;
+
+  @Setup
+  public void setUp() {
+    calculator = new Calculator();
+    LongAdder dynamicCalls = new LongAdder();
+    dynamicProxy = (CalculatorInterface) Proxy.newProxyInstance(CalculatorInterface.class.getClassLoader(),
+        new Class<?>[] {CalculatorInterface.class}, (proxy, method, args) -> {
+          if (method.getName().equals("add")) {
+            dynamicCalls.increment();
+          }
+          try {
+            return method.invoke(calculator, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+    LongAdder interceptedCalls = new LongAdder();
+    interceptingProxy = CalculatorInterceptingProxy.of(calculator, new CalculatorInterceptingProxy.Interceptor() {
+      @Override
+      public long before(int method) {
+        if (method == CalculatorInterceptingProxy.ADD) {
+          interceptedCalls.increment();
+        }
+        return 0L;
+      }
+    });
+  }
+
+  @Benchmark
+  public int direct() {
+    return calculator.add(left, right);
+  }
+
+  @Benchmark
+  public int dynamicProxy() {
+    return dynamicProxy.add(left, right);
+  }
+
+  @Benchmark
+  public int interceptingProxy() {
+    return interceptingProxy.add(left, right);
+  }
+}
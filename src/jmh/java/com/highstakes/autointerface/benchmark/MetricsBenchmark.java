@@ -0,0 +1,52 @@
+package com.highstakes.autointerface.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of the generated {@code CalculatorMetricsDecorator} over calling the service directly, with
+ * every call timed and with one in 64 calls timed. Runs on 4 threads so the counters are contended.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetricsBenchmark {
+  @Param({"1", "64"})
+  public int sampleRate;
+
+  private CalculatorInterface calculator;
+  private CalculatorInterface metricsDecorator;
+  private int left = 1;
+  private int right = 2;
+
+  @Setup
+  public void setUp() {
+    calculator = new Calculator();
+    metricsDecorator = new CalculatorMetricsDecorator(calculator, sampleRate);
+  }
+
+  @Benchmark
+  public int direct() {
+    return calculator.add(left, right);
+  }
+
+  @Benchmark
+  public int metricsDecorator() {
+    return metricsDecorator.add(left, right);
+  }
+}
@@ -0,0 +1,24 @@
+package com.highstakes.autointerface.benchmark;
+
+import com.highstakes.autointerface.AutoInterface;
+import com.highstakes.autointerface.Read;
+import com.highstakes.autointerface.Write;
+
+/**
+ * {@link Counters} read optimistically and locked per key. Every key has its own array element, so the state of
+ * different keys is independent and may be locked by different stripes.
+ */
+@AutoInterface(createConcurrentDecorator = true)
+public class OptimisticCounters implements OptimisticCountersInterface {
+  private final long[] values = new long[Counters.SIZE];
+
+  @Read(optimistic = true, striped = true)
+  public long get(int key) {
+    return values[key];
+  }
+
+  @Write(striped = true)
+  public void add(int key, long delta) {
+    values[key] += delta;
+  }
+}
@@ -0,0 +1,66 @@
+package com.highstakes.autointerface.benchmark;
+
+import com.google.testing.compile.Compilation;
+import com.highstakes.autointerface.AutoInterfaceProcessor;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaFileObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * Measures a full annotation processing run of {@link AutoInterfaceProcessor} over a synthetic codebase, driven
+ * through an in-process javac like {@code AutoInterfaceProcessorTest}. Sources are compiled with
+ * {@code -proc:only}, so one operation is the processing round plus parsing and entering the sources it reads and
+ * generates. {@link #javacOnly()} measures the same compilation without the processor; the difference is the
+ * processor cost. Run with {@code ./gradlew jmh -PjmhInclude=ProcessorBenchmark}, which adds {@code -prof gc} for
+ * the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ProcessorBenchmark {
+  @Param({"100", "1000", "10000"})
+  public int types;
+
+  @Param({"WIDE", "INHERITED", "LIBRARY", "DECORATOR"})
+  public SyntheticSources shape;
+
+  private List<JavaFileObject> sources;
+
+  @Setup
+  public void setUp() {
+    sources = shape.sources(types);
+  }
+
+  @Benchmark
+  public Compilation process() {
+    return check(javac().withProcessors(new AutoInterfaceProcessor()).withOptions("-proc:only").compile(sources));
+  }
+
+  @Benchmark
+  public Compilation javacOnly() {
+    return check(javac().withOptions("-proc:only").compile(sources));
+  }
+
+  private static Compilation check(Compilation compilation) {
+    if (compilation.status() != Compilation.Status.SUCCESS) {
+      throw new IllegalStateException(compilation.errors().toString());
+    }
+    return compilation;
+  }
+}
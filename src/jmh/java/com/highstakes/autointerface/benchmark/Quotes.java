@@ -0,0 +1,28 @@
+package com.highstakes.autointerface.benchmark;
+
+import com.highstakes.autointerface.AutoInterface;
+import com.highstakes.autointerface.AutoInterface.Behaviour;
+import com.highstakes.autointerface.Cached;
+import com.highstakes.autointerface.Read;
+import com.highstakes.autointerface.SingleFlight;
+
+/**
+ * Service decorated by the fused decorator benchmark, both with a decorator per behaviour and with one fused
+ * decorator performing the same behaviours in the same order.
+ */
+@AutoInterface(createMetricsDecorator = true, createConcurrentDecorator = true, createCachingDecorator = true,
+    createSingleFlightDecorator = true,
+    fusedDecorator = {Behaviour.METRICS, Behaviour.CONCURRENT, Behaviour.CACHING, Behaviour.SINGLE_FLIGHT})
+public class Quotes implements QuotesInterface {
+  @Cached
+  @Read(optimistic = true)
+  public Long quote(String symbol) {
+    return (long) symbol.hashCode();
+  }
+
+  @SingleFlight
+  @Read(optimistic = true)
+  public Long spread(String symbol) {
+    return (long) symbol.length();
+  }
+}
@@ -0,0 +1,54 @@
+package com.highstakes.autointerface.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a call through the generated {@code CalculatorSwappableDecorator}, which reads its delegate from a
+ * {@code volatile} field, with a call through a decorator extending {@code AbstractCalculatorDecorator}, which reads
+ * it from a final field. On x86 a {@code volatile} read compiles to the same plain load, so both should cost the
+ * same; on AArch64 it is a load-acquire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SwappableDecoratorBenchmark {
+  private CalculatorInterface finalField;
+  private CalculatorInterface swappable;
+  private int left = 1;
+  private int right = 2;
+
+  @Setup
+  public void setUp() {
+    finalField = new FinalFieldDecorator(new Calculator());
+    swappable = new CalculatorSwappableDecorator(new Calculator());
+  }
+
+  @Benchmark
+  public int finalField() {
+    return finalField.add(left, right);
+  }
+
+  @Benchmark
+  public int swappable() {
+    return swappable.add(left, right);
+  }
+
+  private static final class FinalFieldDecorator extends AbstractCalculatorDecorator {
+    FinalFieldDecorator(CalculatorInterface delegate) {
+      super(delegate);
+    }
+  }
+}
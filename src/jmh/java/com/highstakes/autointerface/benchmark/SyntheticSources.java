@@ -0,0 +1,139 @@
+package com.highstakes.autointerface.benchmark;
+
+import com.google.testing.compile.JavaFileObjects;
+import java.util.ArrayList;
+import java.util.List;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates synthetic codebases of {@code @AutoInterface} annotated classes for the processor benchmarks.
+ */
+public enum SyntheticSources {
+  /**
+   * Classes with {@value #WIDE_METHODS} public methods each.
+   */
+  WIDE {
+    @Override
+    List<JavaFileObject> sources(int types) {
+      List<JavaFileObject> sources = new ArrayList<>(types);
+      for (int type = 0; type < types; type++) {
+        StringBuilder source = header("Wide" + type, "@AutoInterface", "");
+        for (int method = 0; method < WIDE_METHODS; method++) {
+          source.append(wideMethod(method));
+        }
+        sources.add(source(source.append("}\n")));
+      }
+      return sources;
+    }
+  },
+
+  /**
+   * Classes extending a shared generic hierarchy of {@value #INHERITANCE_DEPTH} levels on top of {@code ArrayList},
+   * generated with {@code includeInherted = true}.
+   */
+  INHERITED {
+    @Override
+    List<JavaFileObject> sources(int types) {
+      List<JavaFileObject> sources = new ArrayList<>(types + INHERITANCE_DEPTH);
+      for (int level = 0; level < INHERITANCE_DEPTH; level++) {
+        String superClass = level == 0 ? "java.util.ArrayList<E>" : "Base" + (level - 1) + "<E>";
+        sources.add(source(new StringBuilder()
+            .append("package synthetic;\n\n")
+            .append("public class Base").append(level).append("<E> extends ").append(superClass).append(" {\n")
+            .append("    public E base").append(level).append("(E value) { return value; }\n")
+            .append("}\n")));
+      }
+      String superClass = "Base" + (INHERITANCE_DEPTH - 1) + "<String>";
+      for (int type = 0; type < types; type++) {
+        StringBuilder source = header("Inherited" + type, "@AutoInterface(includeInherted = true)",
+            " extends " + superClass);
+        source.append("    public String own(String value) { return value; }\n");
+        sources.add(source(source.append("}\n")));
+      }
+      return sources;
+    }
+  },
+
+  /**
+   * Classes extending one of {@value #LIBRARY_SUPERTYPES} collections read from the JDK's class files, generated with
+   * {@code includeInherted = true}. Their supertype methods are resolved once per round, which an on-disk cache of
+   * the methods of binary supertypes across compilations measured no faster than.
+   */
+  LIBRARY {
+    @Override
+    List<JavaFileObject> sources(int types) {
+      List<JavaFileObject> sources = new ArrayList<>(types);
+      for (int type = 0; type < types; type++) {
+        StringBuilder source = header("Library" + type, "@AutoInterface(includeInherted = true)",
+            " extends " + LIBRARY_SUPERTYPE_NAMES[type % LIBRARY_SUPERTYPES]);
+        source.append("    public String own(String value) { return value; }\n");
+        sources.add(source(source.append("}\n")));
+      }
+      return sources;
+    }
+  },
+
+  /**
+   * Generic classes with overloaded, generic and throwing methods, generated with {@code createDecorator = true}.
+   */
+  DECORATOR {
+    @Override
+    List<JavaFileObject> sources(int types) {
+      List<JavaFileObject> sources = new ArrayList<>(types);
+      for (int type = 0; type < types; type++) {
+        StringBuilder source = header("Decorated" + type + "<T extends Comparable<T>>",
+            "@AutoInterface(createDecorator = true)", "");
+        for (int method = 0; method < DECORATOR_METHODS; method++) {
+          source.append("    public T get").append(method).append("(T value) { return value; }\n")
+              .append("    public void set").append(method).append("(T value, int index) {}\n")
+              .append("    public <R extends T> R map").append(method)
+              .append("(java.util.List<? super R> values, R value) throws Exception { return value; }\n");
+        }
+        sources.add(source(source.append("}\n")));
+      }
+      return sources;
+    }
+  };
+
+  static final int WIDE_METHODS = 220;
+  static final int INHERITANCE_DEPTH = 5;
+  static final int DECORATOR_METHODS = 10;
+  static final int LIBRARY_SUPERTYPES = 6;
+  private static final String[] LIBRARY_SUPERTYPE_NAMES = {"java.util.ArrayList<String>",
+      "java.util.LinkedList<String>", "java.util.HashMap<String, Integer>", "java.util.TreeMap<String, Integer>",
+      "java.util.ArrayDeque<String>", "java.util.HashSet<String>"};
+
+  abstract List<JavaFileObject> sources(int types);
+
+  private static StringBuilder header(String typeDeclaration, String annotation, String extendsClause) {
+    return new StringBuilder()
+        .append("package synthetic;\n\n")
+        .append("import com.highstakes.autointerface.AutoInterface;\n\n")
+        .append(annotation).append("\n")
+        .append("public class ").append(typeDeclaration).append(extendsClause).append(" {\n");
+  }
+
+  private static String wideMethod(int method) {
+    switch (method % 4) {
+      case 0:
+        return "    public int method" + method + "(int p0) { return p0; }\n";
+      case 1:
+        return "    public String method" + method + "(String p0, java.util.List<String> p1) { return p0; }\n";
+      case 2:
+        return "    public void method" + method + "(long p0, double p1, Object p2) throws java.io.IOException {}\n";
+      default:
+        return "    public java.util.Map<String, Integer> method" + method
+            + "(java.util.Map<String, Integer> p0) { return p0; }\n";
+    }
+  }
+
+  private static JavaFileObject source(StringBuilder source) {
+    String text = source.toString();
+    int start = text.indexOf("public class ") + "public class ".length();
+    int end = start;
+    while (Character.isJavaIdentifierPart(text.charAt(end))) {
+      end++;
+    }
+    return JavaFileObjects.forSourceString("synthetic." + text.substring(start, end), text);
+  }
+}
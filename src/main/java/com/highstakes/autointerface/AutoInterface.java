@@ -26,10 +26,188 @@ public @interface AutoInterface {
 
   /**
    * Whether to include inherited methods of the class in the interface. Defaults to false.
+   * Inherited methods are read from the supertypes of the annotated class only, which keeps the
+   * processor isolating for Gradle incremental compilation.
    */
   boolean includeInherted() default false;
 
   boolean createDecorator() default false;
 
   String decoratorName() default "";
-}
\ No newline at end of file
+
+  /**
+   * Whether to generate an abstract decorator class {@code AbstractXDecorator} that forwards every method to a
+   * {@code protected final} delegate field set in its constructor. Defaults to false.
+   */
+  boolean createDecoratorClass() default false;
+
+  /**
+   * The generated decorator class's name. Leave default for autogeneration.
+   */
+  String decoratorClassName() default "";
+
+  /**
+   * Whether to generate a decorator class {@code XMetricsDecorator} that records call count, error count and
+   * latency of every method. Defaults to false.
+   */
+  boolean createMetricsDecorator() default false;
+
+  /**
+   * The generated metrics decorator's name. Leave default for autogeneration.
+   */
+  String metricsDecoratorName() default "";
+
+  /**
+   * Whether to generate a decorator class {@code XCachingDecorator} that memoizes the results of the methods
+   * annotated with {@link Cached}. Defaults to false.
+   */
+  boolean createCachingDecorator() default false;
+
+  /**
+   * The generated caching decorator's name. Leave default for autogeneration.
+   */
+  String cachingDecoratorName() default "";
+
+  /**
+   * Whether to generate a decorator class {@code XBatchingDecorator} that executes the calls of the methods
+   * annotated with {@link Batched} on a background thread. Defaults to false.
+   */
+  boolean createBatchingDecorator() default false;
+
+  /**
+   * The generated batching decorator's name. Leave default for autogeneration.
+   */
+  String batchingDecoratorName() default "";
+
+  /**
+   * Whether to generate a decorator class {@code XConcurrentDecorator} that makes a delegate which is not thread
+   * safe shareable by guarding its {@link Read reads} with read locks and its {@link Write writes} with write locks.
+   * Defaults to false.
+   */
+  boolean createConcurrentDecorator() default false;
+
+  /**
+   * The generated concurrent decorator's name. Leave default for autogeneration.
+   */
+  String concurrentDecoratorName() default "";
+
+  /**
+   * Whether to generate a decorator class {@code XJfrDecorator} that records every call as a JDK Flight Recorder
+   * event with the method, the primitive arguments and the exception thrown. Needs a JDK with {@code jdk.jfr}.
+   * Defaults to false.
+   */
+  boolean createJfrDecorator() default false;
+
+  /**
+   * The generated JFR decorator's name. Leave default for autogeneration.
+   */
+  String jfrDecoratorName() default "";
+
+  /**
+   * Whether to generate a decorator class {@code XHedgingDecorator} that sends a backup call of every
+   * {@link Idempotent} method to a second delegate when the first one is slower than its {@code HedgingPolicy}
+   * allows, returning whichever result comes first. Defaults to false.
+   */
+  boolean createHedgingDecorator() default false;
+
+  /**
+   * The generated hedging decorator's name. Leave default for autogeneration.
+   */
+  String hedgingDecoratorName() default "";
+
+  /**
+   * Whether to generate a decorator class {@code XSingleFlightDecorator} that lets concurrent calls of a
+   * {@link SingleFlight} method with equal arguments share one call of the delegate. Defaults to false.
+   */
+  boolean createSingleFlightDecorator() default false;
+
+  /**
+   * The generated single-flight decorator's name. Leave default for autogeneration.
+   */
+  String singleFlightDecoratorName() default "";
+
+  /**
+   * Whether to generate a decorator class {@code XSwappableDecorator} whose delegate can be replaced at runtime with
+   * {@code swap} or {@code compareAndSwap}, without locking. Calls read the delegate from a {@code volatile} field
+   * and calls already running keep using the delegate they read. Defaults to false.
+   */
+  boolean createSwappableDecorator() default false;
+
+  /**
+   * The generated swappable decorator's name. Leave default for autogeneration.
+   */
+  String swappableDecoratorName() default "";
+
+  /**
+   * Whether the swappable decorator counts the calls running on each delegate, so that a callback given to its
+   * constructor is called with every swapped out delegate once its last call finished. Counting costs two
+   * {@code LongAdder} updates per call. Defaults to false.
+   */
+  boolean swappableDecoratorDrains() default false;
+
+  /**
+   * The behaviours of a decorator class {@code XFusedDecorator} that performs all of them within each method, with
+   * a single call of the delegate, instead of stacking a decorator per behaviour. The first behaviour is the
+   * outermost, as if its decorator wrapped the others. Its constructor takes the delegate followed by the
+   * constructor parameters of each behaviour's decorator in the same order. Defaults to none, which generates no
+   * fused decorator.
+   */
+  Behaviour[] fusedDecorator() default {};
+
+  /**
+   * The generated fused decorator's name. Leave default for autogeneration.
+   */
+  String fusedDecoratorName() default "";
+
+  /**
+   * Whether to generate a class {@code XInterceptingProxy} that passes every call with its typed arguments through a
+   * chain of {@code XInterceptingProxy.Interceptor}s, identifying methods by {@code int} constants instead of
+   * reflection. Defaults to false.
+   */
+  boolean createInterceptingProxy() default false;
+
+  /**
+   * The generated intercepting proxy's name. Leave default for autogeneration.
+   */
+  String interceptingProxyName() default "";
+
+  /**
+   * Whether to generate an interface {@code XAsync} with every method returning a {@code CompletableFuture} of its
+   * result, and {@code XAsyncAdapter} implementing it by calling the main interface on an executor. Defaults to
+   * false.
+   */
+  boolean createAsync() default false;
+
+  /**
+   * The generated async interface's name, the adapter's name is this name followed by {@code Adapter}. Leave
+   * default for autogeneration.
+   */
+  String asyncName() default "";
+
+  /**
+   * Primitive specializations of type variables of the annotated class, each assigning primitive types to one or more
+   * of them, like {@code "K=long"} or {@code "K=long,V=double"}. Each generates an interface {@code XLongInterface}
+   * whose methods take and return the primitive wherever the main interface uses the type variable itself, and
+   * {@code XLongAdapter} implementing the main interface for the wrapper type through it, as well as the decorator
+   * and decorator class if those are generated. Generated names add the capitalized primitive types, like
+   * {@code LongDouble}, to the name of the class. Defaults to none.
+   */
+  String[] specialize() default {};
+
+  /**
+   * A behaviour of a fused decorator, each the same as the decorator of the same name.
+   */
+  enum Behaviour {
+    METRICS,
+    CACHING,
+    /**
+     * Enqueues calls of {@link Batched} methods, which the queue executes through the behaviours after it. Must come
+     * before {@link #CONCURRENT}, whose lock would otherwise only cover enqueueing the call.
+     */
+    BATCHING,
+    CONCURRENT,
+    JFR,
+    HEDGING,
+    SINGLE_FLIGHT
+  }
+}
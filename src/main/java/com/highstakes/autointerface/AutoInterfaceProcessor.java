@@ -1,8 +1,14 @@
 package com.highstakes.autointerface;
 
 import com.google.auto.service.AutoService;
+import com.highstakes.autointerface.runtime.AsyncCalls;
+import com.highstakes.autointerface.runtime.AutoInterfaceIndex;
+import com.highstakes.autointerface.runtime.DrainableDelegate;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
@@ -10,155 +16,578 @@ import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
 import org.checkerframework.checker.signature.qual.FullyQualifiedName;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.processing.AbstractProcessor;
-import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
 
 @AutoService(Processor.class)
 @SupportedAnnotationTypes({"com.highstakes.autointerface.AutoInterface"})
+@SupportedOptions({AutoInterfaceProcessor.PARALLEL_OPTION, AutoInterfaceProcessor.REPORT_OPTION,
+    AutoInterfaceProcessor.INDEX_OPTION})
 public class AutoInterfaceProcessor extends AbstractProcessor {
+  /**
+   * Number of threads used to render generated files, defaults to 1 which renders on the processing thread.
+   */
+  static final String PARALLEL_OPTION = "autointerface.parallel";
+  /**
+   * Path of a CSV file to write processing metrics of every annotated type to, see {@link ProcessingReport}.
+   */
+  static final String REPORT_OPTION = "autointerface.report";
+  /**
+   * Set to {@code true} to write an {@link AutoInterfaceIndex} of the annotated classes, which makes the processor
+   * aggregating for Gradle.
+   */
+  static final String INDEX_OPTION = "autointerface.index";
+  static final String GRADLE_ISOLATING_OPTION = "org.gradle.annotation.processing.isolating";
+  static final String GRADLE_AGGREGATING_OPTION = "org.gradle.annotation.processing.aggregating";
+  private static final Set<ElementKind> TYPE_KINDS = EnumSet.of(ElementKind.CLASS, ElementKind.INTERFACE);
+
   private Elements elementUtils;
   private Types typeUtils;
-  private Filer filer;
-  private Set<String> objectMethods;
+  private SourceFileWriter sourceFileWriter;
+  private ProcessingReport report;
+  /**
+   * Instance methods of {@link Object} by name, which are never added to generated interfaces. Keyed by
+   * {@link Name}, which compares and hashes without decoding the name into a {@code String}, so members not named
+   * like a method of {@code Object} are rejected by one lookup. Elements must not be used across rounds, so this is
+   * created again in every round.
+   */
+  private Map<Name, List<ExecutableElement>> objectMethods;
+  /**
+   * Public methods of the supertypes of annotated types, including their own inherited methods. Elements must not
+   * be used across rounds, so this is cleared at the end of every round.
+   */
+  private final Map<TypeElement, List<ExecutableElement>> supertypeMethods = new HashMap<>();
   private Messager messager;
+  /**
+   * Lines of the index by the binary name of their annotated class, {@code null} unless {@link #INDEX_OPTION} is
+   * set. Gradle reprocesses every annotated type of an aggregating processor, so the index is always complete.
+   */
+  private Map<String, String> index;
+  /**
+   * Settings applied to every type javac was given by name instead of the annotations of annotated types, or
+   * {@code null}, see {@link BulkGenerator}. Those types are only processed in the first round, later rounds only
+   * see the generated files.
+   */
+  private final AutoInterface classSettings;
+  private boolean classesProcessed;
+
+  public AutoInterfaceProcessor() {
+    this(null);
+  }
+
+  AutoInterfaceProcessor(AutoInterface classSettings) {
+    this.classSettings = classSettings;
+  }
+
+  /**
+   * Types read from class files are not annotated, so without annotations javac only calls processors that support
+   * every annotation type.
+   */
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return classSettings != null ? Collections.singleton("*") : super.getSupportedAnnotationTypes();
+  }
 
   @Override public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latest();
   }
 
+  /**
+   * The processor is registered with Gradle as dynamic: it is isolating unless it writes the index, which aggregates
+   * every annotated type into one resource.
+   */
+  @Override
+  public Set<String> getSupportedOptions() {
+    Set<String> options = new HashSet<>(super.getSupportedOptions());
+    options.add(index != null ? GRADLE_AGGREGATING_OPTION : GRADLE_ISOLATING_OPTION);
+    return options;
+  }
+
   @Override
   public synchronized void init(ProcessingEnvironment env) {
     super.init(env);
     this.elementUtils = env.getElementUtils();
     this.typeUtils = env.getTypeUtils();
-    this.filer = env.getFiler();
     this.messager = env.getMessager();
-    this.objectMethods = getObjectMethodSignatures();
+    String reportPath = env.getOptions().get(REPORT_OPTION);
+    this.report = reportPath != null ? new ProcessingReport(Paths.get(reportPath)) : ProcessingReport.DISABLED;
+    this.sourceFileWriter = new SourceFileWriter(env.getFiler(), messager, getParallelism(env), report);
+    this.index = "true".equals(env.getOptions().get(INDEX_OPTION)) ? new TreeMap<>() : null;
+  }
+
+  private int getParallelism(ProcessingEnvironment env) {
+    String parallelism = env.getOptions().get(PARALLEL_OPTION);
+    if (parallelism == null) {
+      return 1;
+    }
+    try {
+      return Math.max(1, Integer.parseInt(parallelism.trim()));
+    } catch (NumberFormatException e) {
+      messager.printMessage(Diagnostic.Kind.WARNING,
+          "AutoInterface: Ignoring invalid " + PARALLEL_OPTION + " value " + parallelism);
+      return 1;
+    }
   }
 
   @Override
   public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
     if (!roundEnvironment.processingOver()) {
-      roundEnvironment.getElementsAnnotatedWith(AutoInterface.class)
-          .stream()
-          .filter(it -> Arrays.asList(ElementKind.CLASS, ElementKind.INTERFACE).contains(it.getKind()))
-          .map(TypeElement.class::cast)
-          .forEach(this::generateInterface);
-      return true;
+      report.startRound();
+      List<JavaFile> javaFiles = new ArrayList<>();
+      Set<? extends Element> types = classSettings == null
+          ? roundEnvironment.getElementsAnnotatedWith(AutoInterface.class)
+          : classesProcessed ? Collections.emptySet() : roundEnvironment.getRootElements();
+      classesProcessed = true;
+      objectMethods = getObjectMethods();
+      for (Element type : types) {
+        if (TYPE_KINDS.contains(type.getKind())
+            && (classSettings == null || type.getModifiers().contains(Modifier.PUBLIC))) {
+          javaFiles.addAll(generateInterface((TypeElement) type,
+              classSettings != null ? classSettings : type.getAnnotation(AutoInterface.class)));
+        }
+      }
+      supertypeMethods.clear();
+      writeJavaFiles(javaFiles);
+      report.endRound();
+      return classSettings == null;
+    }
+    if (index != null) {
+      writeIndex();
+    }
+    try {
+      report.write();
+    } catch (IOException e) {
+      messager.printMessage(Diagnostic.Kind.WARNING, "AutoInterface: Error writing report: " + e.getMessage());
     }
     return false;
   }
 
-  private void generateInterface(TypeElement rootTypeElemenet) {
-    AutoInterface autoInterface = rootTypeElemenet.getAnnotation(AutoInterface.class);
+  private void writeJavaFiles(List<JavaFile> javaFiles) {
+    List<String> sources;
+    try {
+      sources = sourceFileWriter.render(javaFiles);
+    } catch (IOException e) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: Error generating interface: " + e.getMessage());
+      return;
+    }
+    for (int i = 0; i < javaFiles.size(); i++) {
+      if (sources.get(i) == null) {
+        continue;
+      }
+      try {
+        long start = report.start();
+        sourceFileWriter.write(javaFiles.get(i), sources.get(i));
+        report.written(javaFiles.get(i), start);
+      } catch (IOException e) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: Error generating interface: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Writes the lines of the index, sorted by annotated class so that the resource is byte-stable.
+   */
+  private void writeIndex() {
+    try {
+      FileObject resource = processingEnv.getFiler()
+          .createResource(StandardLocation.CLASS_OUTPUT, "", AutoInterfaceIndex.RESOURCE);
+      try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+        writer.write(AutoInterfaceIndex.HEADER + "\n");
+        for (String line : index.values()) {
+          writer.write(line + "\n");
+        }
+      }
+    } catch (IOException e) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: Error writing index: " + e.getMessage());
+    }
+  }
+
+  private List<JavaFile> generateInterface(TypeElement rootTypeElemenet, AutoInterface autoInterface) {
     String packageName =  !"".equals(autoInterface.pkg()) ? autoInterface.pkg() :
             elementUtils.getPackageOf(rootTypeElemenet).getQualifiedName().toString();
     List<JavaFile> javaFiles = new ArrayList<>();
     boolean mainInterfaceIsRootElement = rootTypeElemenet.getKind().equals(ElementKind.INTERFACE);
 
-    TypeSpec mainInterfaceSpec = createMainInterfaceTypeSpec(
-            rootTypeElemenet, autoInterface.name(), autoInterface.pkg(), mainInterfaceIsRootElement)
-        .addMethods(createMainInterfaceMethodSpec(autoInterface, rootTypeElemenet, mainInterfaceIsRootElement)).build();
+    List<InterfaceMethod> methods =
+        createMainInterfaceMethods(autoInterface, rootTypeElemenet, mainInterfaceIsRootElement);
+    TypeSpec.Builder mainInterface = createMainInterfaceTypeSpec(
+            rootTypeElemenet, autoInterface.name(), autoInterface.pkg(), mainInterfaceIsRootElement);
+    for (InterfaceMethod method : methods) {
+      mainInterface.addMethod(method.spec);
+    }
+    TypeSpec mainInterfaceSpec = mainInterface.build();
     if (!mainInterfaceIsRootElement) {
       javaFiles.add(JavaFile.builder(packageName, mainInterfaceSpec).indent("    ").build());
     }
+    TypeName mainInterfaceTypeName =
+        getMainInterfaceTypeName(packageName, rootTypeElemenet, mainInterfaceSpec, mainInterfaceIsRootElement);
 
     if (autoInterface.createDecorator()) {
-      TypeSpec decoratorSpec = createDecoratorTypeSpec(rootTypeElemenet, autoInterface.decoratorName(), autoInterface.pkg(),
-              mainInterfaceSpec, mainInterfaceIsRootElement)
-              .addMethods(createDecoratorMethodSpec(packageName, rootTypeElemenet, mainInterfaceSpec,
-                      mainInterfaceIsRootElement)).build();
+      long start = report.start();
+      TypeSpec decoratorSpec = createDecoratorTypeSpec(rootTypeElemenet,
+              getInterfaceClass(rootTypeElemenet, autoInterface.decoratorName(), autoInterface.pkg(), "Decorator"),
+              getTypeVariables(rootTypeElemenet), mainInterfaceTypeName)
+              .addMethods(createDecoratorMethodSpec(mainInterfaceTypeName, methods)).build();
       javaFiles.add(JavaFile.builder(packageName, decoratorSpec).indent("    ").build());
+      report.decorator(rootTypeElemenet, start);
     }
 
-    try {
-      for (JavaFile javaFile : javaFiles) {
-          javaFile.writeTo(filer);
+    if (autoInterface.createDecoratorClass()) {
+      long start = report.start();
+      String decoratorClassName = autoInterface.decoratorClassName();
+      TypeSpec decoratorClassSpec = createDecoratorClassSpec(rootTypeElemenet, ClassName.get(packageName,
+              !"".equals(decoratorClassName) ? decoratorClassName : "Abstract" + getClassName(rootTypeElemenet)
+                      + "Decorator"), getTypeVariables(rootTypeElemenet), mainInterfaceTypeName, methods);
+      javaFiles.add(JavaFile.builder(packageName, decoratorClassSpec).indent("    ").build());
+      report.decorator(rootTypeElemenet, start);
+    }
+
+    checkMethods(getBehaviours(autoInterface), methods);
+    if (autoInterface.createMetricsDecorator()) {
+      javaFiles.add(createBehaviourDecorator(rootTypeElemenet, autoInterface.metricsDecoratorName(), autoInterface.pkg(),
+              "MetricsDecorator", mainInterfaceTypeName, methods, new MetricsBehaviour()));
+    }
+
+    if (autoInterface.createCachingDecorator()) {
+      javaFiles.add(createBehaviourDecorator(rootTypeElemenet, autoInterface.cachingDecoratorName(), autoInterface.pkg(),
+              "CachingDecorator", mainInterfaceTypeName, methods, new CachingBehaviour()));
+    }
+
+    if (autoInterface.createBatchingDecorator()) {
+      javaFiles.add(createBehaviourDecorator(rootTypeElemenet, autoInterface.batchingDecoratorName(),
+              autoInterface.pkg(), "BatchingDecorator", mainInterfaceTypeName, methods, new BatchingBehaviour()));
+    }
+
+    if (autoInterface.createConcurrentDecorator()) {
+      javaFiles.add(createBehaviourDecorator(rootTypeElemenet, autoInterface.concurrentDecoratorName(),
+              autoInterface.pkg(), "ConcurrentDecorator", mainInterfaceTypeName, methods, new ConcurrencyBehaviour()));
+    }
+
+    if (autoInterface.createJfrDecorator()) {
+      ClassName jfrDecoratorName = getInterfaceClass(rootTypeElemenet, autoInterface.jfrDecoratorName(),
+              autoInterface.pkg(), "JfrDecorator");
+      javaFiles.add(createBehaviourDecorator(rootTypeElemenet, autoInterface.jfrDecoratorName(), autoInterface.pkg(),
+              "JfrDecorator", mainInterfaceTypeName, methods,
+              new JfrBehaviour(jfrDecoratorName.nestedClass("CallEvent"), mainInterfaceTypeName, methods)));
+    }
+
+    if (autoInterface.createHedgingDecorator()) {
+      javaFiles.add(createBehaviourDecorator(rootTypeElemenet, autoInterface.hedgingDecoratorName(),
+              autoInterface.pkg(), "HedgingDecorator", mainInterfaceTypeName, methods,
+              new HedgingBehaviour(mainInterfaceTypeName)));
+    }
+
+    if (autoInterface.createSingleFlightDecorator()) {
+      javaFiles.add(createBehaviourDecorator(rootTypeElemenet, autoInterface.singleFlightDecoratorName(),
+              autoInterface.pkg(), "SingleFlightDecorator", mainInterfaceTypeName, methods,
+              new SingleFlightBehaviour()));
+    }
+
+    if (autoInterface.createSwappableDecorator()) {
+      long start = report.start();
+      ClassName swappableDecoratorName = getInterfaceClass(rootTypeElemenet, autoInterface.swappableDecoratorName(),
+              autoInterface.pkg(), "SwappableDecorator");
+      javaFiles.add(JavaFile.builder(swappableDecoratorName.packageName(),
+              createSwappableDecoratorSpec(swappableDecoratorName, rootTypeElemenet, mainInterfaceTypeName, methods,
+                      autoInterface.swappableDecoratorDrains()))
+              .indent("    ").build());
+      report.decorator(rootTypeElemenet, start);
+    }
+
+    if (autoInterface.fusedDecorator().length > 0) {
+      ClassName fusedDecoratorName = getInterfaceClass(rootTypeElemenet, autoInterface.fusedDecoratorName(),
+              autoInterface.pkg(), "FusedDecorator");
+      List<DecoratorBehaviour> behaviours = createFusedBehaviours(rootTypeElemenet, autoInterface.fusedDecorator(),
+              fusedDecoratorName, mainInterfaceTypeName, methods);
+      if (behaviours != null) {
+        javaFiles.add(createBehaviourDecorator(rootTypeElemenet, autoInterface.fusedDecoratorName(),
+                autoInterface.pkg(), "FusedDecorator", mainInterfaceTypeName, methods,
+                behaviours.toArray(new DecoratorBehaviour[0])));
       }
-    } catch (IOException e) {
-      messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: Error generating interface: " + e.getMessage());
     }
+
+    if (autoInterface.createInterceptingProxy()) {
+      long start = report.start();
+      ClassName proxyName = getInterfaceClass(rootTypeElemenet, autoInterface.interceptingProxyName(),
+              autoInterface.pkg(), "InterceptingProxy");
+      javaFiles.add(JavaFile.builder(proxyName.packageName(),
+              createInterceptingProxySpec(proxyName, rootTypeElemenet, mainInterfaceTypeName, methods))
+              .indent("    ").build());
+      report.decorator(rootTypeElemenet, start);
+    }
+
+    if (autoInterface.createAsync()) {
+      long start = report.start();
+      ClassName asyncName = getInterfaceClass(rootTypeElemenet, autoInterface.asyncName(), autoInterface.pkg(), "Async");
+      javaFiles.add(JavaFile.builder(asyncName.packageName(),
+              createAsyncTypeSpec(asyncName, rootTypeElemenet, methods)).indent("    ").build());
+      javaFiles.add(JavaFile.builder(asyncName.packageName(),
+              createAsyncAdapterSpec(asyncName, rootTypeElemenet, mainInterfaceTypeName, methods))
+              .indent("    ").build());
+      report.decorator(rootTypeElemenet, start);
+    }
+
+    for (Specialization specialization : getSpecializations(rootTypeElemenet, autoInterface)) {
+      long start = report.start();
+      javaFiles.addAll(createSpecializedTypes(rootTypeElemenet, autoInterface, packageName, mainInterfaceTypeName,
+              methods, specialization));
+      report.decorator(rootTypeElemenet, start);
+    }
+
+    for (JavaFile javaFile : javaFiles) {
+      checkOriginatingElement(javaFile, rootTypeElemenet);
+    }
+    if (index != null && !mainInterfaceIsRootElement) {
+      String implementationName = elementUtils.getBinaryName(rootTypeElemenet).toString();
+      List<String> names = javaFiles.stream()
+          .map(it -> it.packageName.isEmpty() ? it.typeSpec.name : it.packageName + "." + it.typeSpec.name)
+          .collect(Collectors.toList());
+      names.add(1, implementationName);
+      index.put(implementationName, String.join(" ", names));
+    }
+    return javaFiles;
   }
 
-  private List<MethodSpec> createDecoratorMethodSpec(String pkg, TypeElement type,
-          TypeSpec mainInterfaceSpec, boolean mainInterfaceIsRootElement) {
-    List<MethodSpec> methodSpecs = new ArrayList<>();
+  /**
+   * The processor is registered with Gradle as isolating, so every generated file must name exactly one originating
+   * element: the annotated type it was generated from. Supertypes read for {@code includeInherted} are tracked by
+   * Gradle through the class hierarchy of that type and must not be added here.
+   */
+  private void checkOriginatingElement(JavaFile javaFile, TypeElement rootTypeElemenet) {
+    List<Element> originatingElements = javaFile.typeSpec.originatingElements;
+    if (originatingElements.size() != 1 || !originatingElements.get(0).equals(rootTypeElemenet)) {
+      throw new IllegalStateException("AutoInterface: " + javaFile.packageName + "." + javaFile.typeSpec.name
+          + " must originate from " + rootTypeElemenet.getQualifiedName() + " only, but has " + originatingElements);
+    }
+  }
+
+  private List<MethodSpec> createDecoratorMethodSpec(TypeName mainInterfaceTypeName, List<InterfaceMethod> methods) {
+    List<MethodSpec> methodSpecs = new ArrayList<>(methods.size() + 1);
     methodSpecs.add(MethodSpec.methodBuilder("getDecoratedObject")
-            .returns(
-                    type.getTypeParameters().isEmpty() ?
-                        mainInterfaceIsRootElement ? ClassName.get(type) : ClassName.get(pkg, mainInterfaceSpec.name)
-                        : ParameterizedTypeName.get(
-                            mainInterfaceIsRootElement ? ClassName.get(type) : ClassName.get(pkg, mainInterfaceSpec.name),
-                            type.getTypeParameters().stream().map(it -> TypeName.get(it.asType())).toArray(TypeName[]::new)
-                        )
-            )
+            .returns(mainInterfaceTypeName)
             .addModifiers(Modifier.ABSTRACT, Modifier.PUBLIC)
             .build());
-    methodSpecs.addAll(mainInterfaceSpec.methodSpecs.stream()
-            .map(it -> MethodSpec.methodBuilder(it.name)
-                    .returns(it.returnType)
-                    .addExceptions(it.exceptions)
-                    .addTypeVariables(it.typeVariables)
-                    .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
-                    .addParameters(it.parameters)
-                    .addAnnotation(Override.class)
-                    .addCode(
-                            CodeBlock.of(
-                                    (it.returnType.equals(TypeName.VOID) ? "" : "return ") +
-                                    "getDecoratedObject()." + it.name + "("+
-                                    it.parameters.stream().map(parameterSpec -> parameterSpec.name)
-                                            .collect(Collectors.joining(","))
-                                    +");")
-                    )
-                    .build()
-            )
-            .collect(Collectors.toList()));
+    for (InterfaceMethod method : methods) {
+      methodSpecs.add(MethodSpec.methodBuilder(method.spec.name)
+              .returns(method.spec.returnType)
+              .addExceptions(method.spec.exceptions)
+              .addTypeVariables(method.spec.typeVariables)
+              .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+              .addParameters(method.spec.parameters)
+              .addAnnotation(Override.class)
+              .addStatement(createDelegateCall("getDecoratedObject()", method))
+              .build());
+    }
     return methodSpecs;
   }
 
-  private List<MethodSpec> createMainInterfaceMethodSpec(AutoInterface autoInterface, TypeElement rootTypeElemenet,
+  /**
+   * Creates the methods of the main interface: inherited methods sorted by name and signature, followed by the
+   * declared methods in declaration order. The member order of supertypes does not make it into the output, so the
+   * generated interface does not depend on how javac happened to load them. Parameters keep the names javac reports,
+   * which for a class file without a parameter-name table are the positional {@code arg0}, {@code arg1}, ...
+   */
+  private List<InterfaceMethod> createMainInterfaceMethods(AutoInterface autoInterface, TypeElement rootTypeElemenet,
           boolean mainInterfaceIsRootElement) {
-    List<? extends Element> elementList = autoInterface.includeInherted() ?  elementUtils.getAllMembers(rootTypeElemenet) :
-            rootTypeElemenet.getEnclosedElements();
-    return elementList.stream()
-            .filter(it -> it.getKind().equals(ElementKind.METHOD))
-            .filter(it -> Arrays.asList(ElementKind.CLASS, ElementKind.INTERFACE).contains(it.getEnclosingElement().getKind()))
-            .filter(it -> !objectMethods.contains(it.toString()))
-            .map(ExecutableElement.class::cast)
-            .filter(it -> !it.getModifiers().contains(Modifier.STATIC))
-            .filter(it -> it.getModifiers().contains(Modifier.PUBLIC))
-            .map(it -> createMethodSpec(rootTypeElemenet, it))
-            .distinct()
-            .collect(Collectors.toList());
+    long start = report.start();
+    Map<String, ExecutableElement> methods = new HashMap<>();
+    Map<String, ExecutableType> methodTypes = new HashMap<>();
+    int candidates = 0;
+    if (autoInterface.includeInherted()) {
+      List<ExecutableElement> inheritedMethods = getInheritedMethods(rootTypeElemenet);
+      candidates += inheritedMethods.size();
+      for (ExecutableElement method : inheritedMethods) {
+        addMethod(rootTypeElemenet, method, methods, methodTypes);
+      }
+    }
+    List<ExecutableElement> declaredMethods = getPublicMethods(rootTypeElemenet.getEnclosedElements());
+    candidates += declaredMethods.size();
+    Map<String, ExecutableElement> ownMethods = new LinkedHashMap<>();
+    for (ExecutableElement method : declaredMethods) {
+      // Declared methods always win over inherited ones
+      ExecutableType methodType =
+              (ExecutableType) typeUtils.asMemberOf((DeclaredType) rootTypeElemenet.asType(), method);
+      String signature = getSignature(method, methodType);
+      methods.remove(signature);
+      ownMethods.put(signature, method);
+      methodTypes.put(signature, methodType);
+    }
+    List<String> inheritedSignatures = new ArrayList<>(methods.keySet());
+    inheritedSignatures.sort(Comparator.comparing((String it) -> it.substring(0, it.indexOf('(')))
+            .thenComparing(Comparator.naturalOrder()));
+    report.memberCollection(rootTypeElemenet, start, candidates, methods.size() + ownMethods.size());
+
+    start = report.start();
+    List<ExecutableElement> elements = new ArrayList<>(methods.size() + ownMethods.size());
+    List<MethodSpec> methodSpecs = new ArrayList<>(methods.size() + ownMethods.size());
+    for (String signature : inheritedSignatures) {
+      elements.add(methods.get(signature));
+      methodSpecs.add(createMethodSpec(methods.get(signature), methodTypes.get(signature)));
+    }
+    ownMethods.forEach((signature, method) -> {
+      elements.add(method);
+      methodSpecs.add(createMethodSpec(method, methodTypes.get(signature)));
+    });
+    Map<String, Integer> overloads = new HashMap<>();
+    for (MethodSpec methodSpec : methodSpecs) {
+      overloads.merge(methodSpec.name, 1, Integer::sum);
+    }
+    Map<String, Integer> overloadIndices = new HashMap<>();
+    List<InterfaceMethod> interfaceMethods = new ArrayList<>(methodSpecs.size());
+    for (int i = 0; i < methodSpecs.size(); i++) {
+      String name = methodSpecs.get(i).name;
+      String id = overloads.get(name) == 1 ? name : name + "_" + overloadIndices.merge(name, 1, Integer::sum);
+      interfaceMethods.add(new InterfaceMethod(elements.get(i), methodSpecs.get(i), id));
+    }
+    report.methodSpecs(rootTypeElemenet, start);
+    return interfaceMethods;
+  }
+
+  /**
+   * Adds the inherited method keyed by its erased signature as a member of the root type. Of two methods with the
+   * same signature the one with the more specific return type is kept, so a covariant override replaces the method
+   * it overrides.
+   */
+  private void addMethod(TypeElement rootType, ExecutableElement method, Map<String, ExecutableElement> methods,
+          Map<String, ExecutableType> methodTypes) {
+    ExecutableType methodType = (ExecutableType) typeUtils.asMemberOf((DeclaredType) rootType.asType(), method);
+    String signature = getSignature(method, methodType);
+    ExecutableElement existing = methods.get(signature);
+    if (existing == null || overrides(rootType, method, methodType, existing, methodTypes.get(signature))) {
+      methods.put(signature, method);
+      methodTypes.put(signature, methodType);
+    }
+  }
+
+  private boolean overrides(TypeElement rootType, ExecutableElement method, ExecutableType methodType,
+          ExecutableElement existing, ExecutableType existingType) {
+    TypeMirror returnType = methodType.getReturnType();
+    TypeMirror existingReturnType = existingType.getReturnType();
+    if (returnType.getKind() != TypeKind.VOID && !typeUtils.isSameType(returnType, existingReturnType)) {
+      return typeUtils.isSubtype(returnType, existingReturnType);
+    }
+    return elementUtils.overrides(method, existing, rootType);
+  }
+
+  private String getSignature(ExecutableElement method, ExecutableType methodType) {
+    StringBuilder signature = new StringBuilder(method.getSimpleName()).append('(');
+    for (TypeMirror parameterType : methodType.getParameterTypes()) {
+      signature.append(typeUtils.erasure(parameterType)).append(',');
+    }
+    return signature.append(')').toString();
+  }
+
+  /**
+   * Returns the public methods of the supertypes of the type, which may contain methods overridden by the type or
+   * by other supertypes. The methods of each supertype are resolved once per round and shared by all of its
+   * subclasses; type variables are substituted for every subclass separately by {@link Types#asMemberOf}.
+   */
+  private List<ExecutableElement> getInheritedMethods(TypeElement type) {
+    List<ExecutableElement> inheritedMethods = new ArrayList<>();
+    for (TypeMirror superType : typeUtils.directSupertypes(type.asType())) {
+      inheritedMethods.addAll(getSupertypeMethods((TypeElement) typeUtils.asElement(superType)));
+    }
+    return inheritedMethods;
+  }
+
+  private List<ExecutableElement> getSupertypeMethods(TypeElement superType) {
+    return supertypeMethods.computeIfAbsent(superType, it -> getPublicMethods(elementUtils.getAllMembers(it)));
+  }
+
+  private List<ExecutableElement> getPublicMethods(List<? extends Element> elementList) {
+    List<ExecutableElement> publicMethods = new ArrayList<>();
+    for (Element element : elementList) {
+      if (element.getKind() != ElementKind.METHOD
+              || !TYPE_KINDS.contains(element.getEnclosingElement().getKind())) {
+        continue;
+      }
+      Set<Modifier> modifiers = element.getModifiers();
+      ExecutableElement method = (ExecutableElement) element;
+      if (modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.STATIC) && !isObjectMethod(method)) {
+        publicMethods.add(method);
+      }
+    }
+    return publicMethods;
+  }
+
+  /**
+   * Whether the method has the name and the declared parameter types of an instance method of {@link Object}.
+   */
+  private boolean isObjectMethod(ExecutableElement method) {
+    List<ExecutableElement> candidates = objectMethods.get(method.getSimpleName());
+    if (candidates == null) {
+      return false;
+    }
+    List<? extends VariableElement> parameters = method.getParameters();
+    for (ExecutableElement candidate : candidates) {
+      List<? extends VariableElement> candidateParameters = candidate.getParameters();
+      if (candidateParameters.size() != parameters.size()) {
+        continue;
+      }
+      boolean same = true;
+      for (int i = 0; i < parameters.size() && same; i++) {
+        same = typeUtils.isSameType(parameters.get(i).asType(), candidateParameters.get(i).asType());
+      }
+      if (same) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private TypeSpec.Builder createMainInterfaceTypeSpec(TypeElement type, String name, String pkg,
@@ -170,26 +599,758 @@ public class AutoInterfaceProcessor extends AbstractProcessor {
         .addOriginatingElement(type);
   }
 
-  private TypeSpec.Builder createDecoratorTypeSpec(TypeElement type, String name, String pkg, TypeSpec mainInterfaceSpec,
-          boolean mainInterfaceIsRootElement) {
-    return TypeSpec.interfaceBuilder(getInterfaceClass(type, name, pkg, "Decorator"))
+  private TypeSpec.Builder createDecoratorTypeSpec(TypeElement type, ClassName className,
+          Iterable<TypeVariableName> typeVariables, TypeName mainInterfaceTypeName) {
+    return TypeSpec.interfaceBuilder(className)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addSuperinterface(mainInterfaceTypeName)
+            .addOriginatingElement(type);
+  }
+
+  /**
+   * Creates {@code AbstractXDecorator}, which forwards every method to a {@code protected final} delegate field.
+   * Unlike the decorator interface it needs no {@code getDecoratedObject()} interface call per forwarded call.
+   */
+  private TypeSpec createDecoratorClassSpec(TypeElement type, ClassName className,
+          Iterable<TypeVariableName> typeVariables, TypeName mainInterfaceTypeName, List<InterfaceMethod> methods) {
+    TypeSpec.Builder decoratorClass = TypeSpec.classBuilder(className)
+            .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+            .addTypeVariables(typeVariables)
+            .addSuperinterface(mainInterfaceTypeName)
+            .addField(mainInterfaceTypeName, "delegate", Modifier.PROTECTED, Modifier.FINAL)
+            .addMethod(MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PROTECTED)
+                    .addParameter(mainInterfaceTypeName, "delegate")
+                    .addStatement("this.delegate = delegate")
+                    .build())
+            .addOriginatingElement(type);
+    for (InterfaceMethod method : methods) {
+      decoratorClass.addMethod(createForwardingMethodSpec(method.spec)
+              .addStatement(createDelegateCall("this.delegate", method))
+              .build());
+    }
+    return decoratorClass.build();
+  }
+
+  private JavaFile createBehaviourDecorator(TypeElement type, String name, String pkg, String fallbackSuffix,
+          TypeName mainInterfaceTypeName, List<InterfaceMethod> methods, DecoratorBehaviour... behaviours) {
+    long start = report.start();
+    ClassName className = getInterfaceClass(type, name, pkg, fallbackSuffix);
+    JavaFile javaFile = JavaFile.builder(className.packageName(),
+            createBehaviourDecoratorSpec(className, type, mainInterfaceTypeName, methods, Arrays.asList(behaviours)))
+            .indent("    ")
+            .build();
+    report.decorator(type, start);
+    return javaFile;
+  }
+
+  /**
+   * Creates the behaviours of a fused decorator in the order given, or returns {@code null} after reporting an
+   * error if one is given twice, which would add its fields twice, or if {@code CONCURRENT} is given before
+   * {@code BATCHING}, whose lock would only be held while a call is enqueued and not while the queue executes it.
+   */
+  private List<DecoratorBehaviour> createFusedBehaviours(TypeElement type, AutoInterface.Behaviour[] fusedBehaviours,
+          ClassName className, TypeName mainInterfaceTypeName, List<InterfaceMethod> methods) {
+    Set<AutoInterface.Behaviour> seen = EnumSet.noneOf(AutoInterface.Behaviour.class);
+    List<DecoratorBehaviour> behaviours = new ArrayList<>(fusedBehaviours.length);
+    for (AutoInterface.Behaviour behaviour : fusedBehaviours) {
+      if (!seen.add(behaviour)) {
+        messager.printMessage(Diagnostic.Kind.ERROR,
+                "AutoInterface: fusedDecorator lists " + behaviour + " more than once", type);
+        return null;
+      }
+      if (behaviour == AutoInterface.Behaviour.BATCHING && seen.contains(AutoInterface.Behaviour.CONCURRENT)) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: fusedDecorator must list BATCHING before "
+                + "CONCURRENT, @Batched calls are executed by the queue after the lock is released", type);
+        return null;
+      }
+      switch (behaviour) {
+        case METRICS:
+          behaviours.add(new MetricsBehaviour());
+          break;
+        case CACHING:
+          behaviours.add(new CachingBehaviour());
+          break;
+        case BATCHING:
+          behaviours.add(new BatchingBehaviour());
+          break;
+        case CONCURRENT:
+          behaviours.add(new ConcurrencyBehaviour());
+          break;
+        case JFR:
+          behaviours.add(new JfrBehaviour(className.nestedClass("CallEvent"), mainInterfaceTypeName, methods));
+          break;
+        case HEDGING:
+          behaviours.add(new HedgingBehaviour(mainInterfaceTypeName));
+          break;
+        case SINGLE_FLIGHT:
+          behaviours.add(new SingleFlightBehaviour());
+          break;
+        default:
+          throw new AssertionError(behaviour);
+      }
+    }
+    return behaviours;
+  }
+
+  /**
+   * Returns the behaviours of every decorator generated, whether on its own or fused.
+   */
+  private Set<AutoInterface.Behaviour> getBehaviours(AutoInterface autoInterface) {
+    Set<AutoInterface.Behaviour> behaviours = EnumSet.noneOf(AutoInterface.Behaviour.class);
+    behaviours.addAll(Arrays.asList(autoInterface.fusedDecorator()));
+    if (autoInterface.createCachingDecorator()) {
+      behaviours.add(AutoInterface.Behaviour.CACHING);
+    }
+    if (autoInterface.createBatchingDecorator()) {
+      behaviours.add(AutoInterface.Behaviour.BATCHING);
+    }
+    if (autoInterface.createConcurrentDecorator()) {
+      behaviours.add(AutoInterface.Behaviour.CONCURRENT);
+    }
+    if (autoInterface.createSingleFlightDecorator()) {
+      behaviours.add(AutoInterface.Behaviour.SINGLE_FLIGHT);
+    }
+    return behaviours;
+  }
+
+  /**
+   * Reports the methods the behaviours cannot be applied to, once even if a behaviour is used by more than one
+   * decorator.
+   */
+  private void checkMethods(Set<AutoInterface.Behaviour> behaviours, List<InterfaceMethod> methods) {
+    if (behaviours.contains(AutoInterface.Behaviour.CACHING)) {
+      checkCachedMethods(methods);
+    }
+    if (behaviours.contains(AutoInterface.Behaviour.BATCHING)) {
+      checkBatchedMethods(methods);
+    }
+    if (behaviours.contains(AutoInterface.Behaviour.CONCURRENT)) {
+      checkLockedMethods(methods);
+    }
+    if (behaviours.contains(AutoInterface.Behaviour.SINGLE_FLIGHT)) {
+      checkSingleFlightMethods(methods);
+    }
+  }
+
+  private void checkCachedMethods(List<InterfaceMethod> methods) {
+    for (InterfaceMethod method : methods) {
+      if (method.element.getAnnotation(Cached.class) == null) {
+        continue;
+      }
+      if (method.returnsVoid()) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: @Cached methods must return a value",
+                method.element);
+      } else if (!method.spec.typeVariables.isEmpty()) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: @Cached methods must not declare type variables",
+                method.element);
+      } else if (CachingBehaviour.hasArrayParameter(method)) {
+        messager.printMessage(Diagnostic.Kind.ERROR,
+                "AutoInterface: @Cached methods must not take arrays, which are compared by identity",
+                method.element);
+      }
+    }
+  }
+
+  private void checkSingleFlightMethods(List<InterfaceMethod> methods) {
+    for (InterfaceMethod method : methods) {
+      if (method.element.getAnnotation(SingleFlight.class) == null) {
+        continue;
+      }
+      if (method.returnsVoid()) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: @SingleFlight methods must return a value",
+                method.element);
+      } else if (!method.spec.typeVariables.isEmpty()) {
+        messager.printMessage(Diagnostic.Kind.ERROR,
+                "AutoInterface: @SingleFlight methods must not declare type variables", method.element);
+      }
+    }
+  }
+
+  private void checkBatchedMethods(List<InterfaceMethod> methods) {
+    for (InterfaceMethod method : methods) {
+      if (method.element.getAnnotation(Batched.class) != null && !method.returnsVoid()) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: @Batched methods must return void",
+                method.element);
+      }
+      if (BatchingBehaviour.isLifecycleMethod(method) && method.spec.name.equals(BatchingBehaviour.CLOSE)
+              && !method.returnsVoid()) {
+        messager.printMessage(Diagnostic.Kind.ERROR,
+                "AutoInterface: close() must return void to implement AutoCloseable in the batching decorator",
+                method.element);
+      }
+    }
+  }
+
+  private void checkLockedMethods(List<InterfaceMethod> methods) {
+    for (InterfaceMethod method : methods) {
+      if (method.element.getAnnotation(Read.class) != null && method.element.getAnnotation(Write.class) != null) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: Methods must not be both @Read and @Write",
+                method.element);
+      } else if (ConcurrencyBehaviour.isStriped(method) && method.spec.parameters.isEmpty()) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: Striped methods must have a parameter",
+                method.element);
+      }
+    }
+  }
+
+  /**
+   * Creates a decorator class forwarding every method to a {@code private final} delegate field through the given
+   * behaviours. Besides the constructor taking the delegate and the parameters of every behaviour, a constructor
+   * taking only the delegate is added if all behaviour parameters have defaults.
+   */
+  private TypeSpec createBehaviourDecoratorSpec(ClassName className, TypeElement type, TypeName mainInterfaceTypeName,
+          List<InterfaceMethod> methods, List<DecoratorBehaviour> behaviours) {
+    TypeSpec.Builder decorator = TypeSpec.classBuilder(className)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(getTypeVariables(type))
+            .addSuperinterface(mainInterfaceTypeName)
+            .addField(mainInterfaceTypeName, "delegate", Modifier.PRIVATE, Modifier.FINAL)
+            .addOriginatingElement(type);
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(mainInterfaceTypeName, "delegate")
+            .addStatement("this.delegate = delegate");
+    List<CodeBlock> defaultArguments = new ArrayList<>();
+    defaultArguments.add(CodeBlock.of("delegate"));
+    for (DecoratorBehaviour behaviour : behaviours) {
+      constructor.addParameters(behaviour.getConstructorParameters());
+      defaultArguments.addAll(behaviour.getDefaultArguments());
+    }
+
+    for (InterfaceMethod method : methods) {
+      DecoratorBehaviour.Body body = new DecoratorBehaviour.DelegateCall(method);
+      for (int i = behaviours.size() - 1; i >= 0; i--) {
+        if (behaviours.get(i).appliesTo(method)) {
+          body = behaviours.get(i).wrap(method, body);
+        }
+      }
+      decorator.addMethod(createForwardingMethodSpec(method.spec).addCode(body.create(null)).build());
+    }
+    for (DecoratorBehaviour behaviour : behaviours) {
+      behaviour.addMembers(decorator, constructor,
+              methods.stream().filter(behaviour::appliesTo).collect(Collectors.toList()));
+    }
+
+    decorator.addMethod(constructor.build());
+    if (defaultArguments.size() > 1 && !defaultArguments.contains(null)) {
+      decorator.addMethod(MethodSpec.constructorBuilder()
+              .addModifiers(Modifier.PUBLIC)
+              .addParameter(mainInterfaceTypeName, "delegate")
+              .addStatement("this($L)", CodeBlock.join(defaultArguments, ", "))
+              .build());
+    }
+    return decorator.build();
+  }
+
+  /**
+   * Creates {@code XSwappableDecorator}, which forwards every method to a {@code volatile} delegate field swapped
+   * through an {@link AtomicReferenceFieldUpdater}, so a call costs a single field load, as with the final field of
+   * {@code AbstractXDecorator}. If it drains, the field holds a {@link DrainableDelegate} counting the calls running
+   * on the delegate instead, and every swapped out delegate is passed to the callback of the constructor once its
+   * calls finished. The updater of a generic decorator, and of one that drains, uses raw types.
+   */
+  private TypeSpec createSwappableDecoratorSpec(ClassName className, TypeElement type, TypeName mainInterfaceTypeName,
+          List<InterfaceMethod> methods, boolean drains) {
+    TypeName fieldType = drains
+            ? ParameterizedTypeName.get(ClassName.get(DrainableDelegate.class), mainInterfaceTypeName)
+            : mainInterfaceTypeName;
+    ClassName rawFieldType = drains ? ClassName.get(DrainableDelegate.class)
+            : mainInterfaceTypeName instanceof ParameterizedTypeName
+                    ? ((ParameterizedTypeName) mainInterfaceTypeName).rawType : (ClassName) mainInterfaceTypeName;
+    boolean raw = drains || !type.getTypeParameters().isEmpty();
+    TypeName drainedType = ParameterizedTypeName.get(ClassName.get(Consumer.class),
+            WildcardTypeName.supertypeOf(mainInterfaceTypeName));
+    FieldSpec.Builder updater = FieldSpec.builder(
+            ParameterizedTypeName.get(ClassName.get(AtomicReferenceFieldUpdater.class), className, rawFieldType),
+            "DELEGATE", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$T.newUpdater($T.class, $T.class, $S)", AtomicReferenceFieldUpdater.class, className,
+                    rawFieldType, "delegate");
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(mainInterfaceTypeName, "delegate");
+    MethodSpec.Builder swap = MethodSpec.methodBuilder("swap")
+            .addJavadoc("Replaces the delegate and returns the previous one, which calls already running keep using.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(mainInterfaceTypeName)
+            .addParameter(mainInterfaceTypeName, "delegate");
+    MethodSpec.Builder compareAndSwap = MethodSpec.methodBuilder("compareAndSwap")
+            .addJavadoc("Replaces the delegate if it is still the expected one, returns whether it was replaced.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeName.BOOLEAN)
+            .addParameter(mainInterfaceTypeName, "expected")
+            .addParameter(mainInterfaceTypeName, "delegate");
+    if (raw) {
+      updater.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "rawtypes")
+              .build());
+      swap.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked")
+              .build());
+    }
+    TypeSpec.Builder decorator = TypeSpec.classBuilder(className)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(getTypeVariables(type))
+            .addSuperinterface(mainInterfaceTypeName)
+            .addField(updater.build())
+            .addOriginatingElement(type);
+    if (drains) {
+      decorator.addField(drainedType, "drained", Modifier.PRIVATE, Modifier.FINAL);
+      constructor.addParameter(drainedType, "drained")
+              .addStatement("this.drained = drained")
+              .addStatement("this.delegate = new $T<>(delegate, drained)", DrainableDelegate.class);
+      swap.addStatement("$T previous = DELEGATE.getAndSet(this, new $T<>(delegate, this.drained))", fieldType,
+                      DrainableDelegate.class)
+              .addStatement("previous.retire()")
+              .addStatement("return previous.get()");
+      compareAndSwap.addStatement("$T replacement = new $T<>(delegate, this.drained)", fieldType,
+                      DrainableDelegate.class)
+              .beginControlFlow("for ($T current = this.delegate; current.get() == expected; current = this.delegate)",
+                      fieldType)
+              .beginControlFlow("if (DELEGATE.compareAndSet(this, current, replacement))")
+              .addStatement("current.retire()")
+              .addStatement("return true")
+              .endControlFlow()
+              .endControlFlow()
+              .addStatement("return false");
+    } else {
+      constructor.addStatement("this.delegate = delegate");
+      swap.addStatement("return DELEGATE.getAndSet(this, delegate)");
+      compareAndSwap.addStatement("return DELEGATE.compareAndSet(this, expected, delegate)");
+    }
+    decorator.addField(fieldType, "delegate", Modifier.PRIVATE, Modifier.VOLATILE)
+            .addMethod(constructor.build());
+    for (InterfaceMethod method : methods) {
+      MethodSpec.Builder forwardingMethod = createForwardingMethodSpec(method.spec);
+      if (drains) {
+        String delegate = method.local("delegate");
+        forwardingMethod.addStatement("$T $N = enter()", fieldType, delegate)
+                .beginControlFlow("try")
+                .addStatement(createDelegateCall(delegate + ".get()", method))
+                .nextControlFlow("finally")
+                .addStatement("$N.exit()", delegate)
+                .endControlFlow();
+      } else {
+        forwardingMethod.addStatement(createDelegateCall("this.delegate", method));
+      }
+      decorator.addMethod(forwardingMethod.build());
+    }
+    decorator.addMethod(MethodSpec.methodBuilder("getDecoratedObject")
+            .addJavadoc("Returns the current delegate.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(mainInterfaceTypeName)
+            .addStatement(drains ? "return this.delegate.get()" : "return this.delegate")
+            .build())
+            .addMethod(swap.build())
+            .addMethod(compareAndSwap.build());
+    if (drains) {
+      decorator.addMethod(MethodSpec.methodBuilder("enter")
+              .addModifiers(Modifier.PRIVATE)
+              .returns(fieldType)
+              .addStatement("$T delegate = this.delegate", fieldType)
+              .beginControlFlow("while (!delegate.enter())")
+              .addStatement("delegate = this.delegate")
+              .endControlFlow()
+              .addStatement("return delegate")
+              .build());
+    }
+    return decorator.build();
+  }
+
+  /**
+   * Parses the specializations of the type, reporting an error for and skipping every specialization that assigns a
+   * type to something other than a type variable of the type, a type other than a primitive, or a primitive whose
+   * wrapper is not within the bounds of its type variable, or that is listed twice.
+   */
+  private List<Specialization> getSpecializations(TypeElement type, AutoInterface autoInterface) {
+    List<Specialization> specializations = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    for (String value : autoInterface.specialize()) {
+      Specialization specialization = parseSpecialization(type, value);
+      if (specialization != null && !names.add(specialization.name)) {
+        printSpecializationError(type, value, "AutoInterface: specialize lists " + specialization.name
+                + " more than once");
+      } else if (specialization != null) {
+        specializations.add(specialization);
+      }
+    }
+    return specializations;
+  }
+
+  private Specialization parseSpecialization(TypeElement type, String value) {
+    StringBuilder name = new StringBuilder();
+    Map<String, TypeName> primitives = new LinkedHashMap<>();
+    for (String assignment : value.split(",")) {
+      int separator = assignment.indexOf('=');
+      String typeVariable = separator == -1 ? assignment.trim() : assignment.substring(0, separator).trim();
+      String primitive = separator == -1 ? "" : assignment.substring(separator + 1).trim();
+      TypeParameterElement typeParameter = null;
+      for (TypeParameterElement candidate : type.getTypeParameters()) {
+        if (candidate.getSimpleName().contentEquals(typeVariable)) {
+          typeParameter = candidate;
+        }
+      }
+      TypeKind kind = getPrimitiveKind(primitive);
+      if (typeParameter == null || kind == null || primitives.containsKey(typeVariable)) {
+        printSpecializationError(type, value, "AutoInterface: Invalid specialization " + value
+                + ", expected type variables of the class assigned primitive types, like K=long");
+        return null;
+      }
+      PrimitiveType primitiveType = typeUtils.getPrimitiveType(kind);
+      TypeMirror wrapperType = typeUtils.boxedClass(primitiveType).asType();
+      for (TypeMirror bound : typeParameter.getBounds()) {
+        if (!typeUtils.isAssignable(wrapperType, typeUtils.erasure(bound))) {
+          printSpecializationError(type, value, "AutoInterface: Cannot specialize " + typeVariable + " as "
+                  + primitive + ", " + wrapperType + " is not within its bound " + bound);
+          return null;
+        }
+      }
+      primitives.put(typeVariable, TypeName.get(primitiveType));
+      name.append(Character.toUpperCase(primitive.charAt(0))).append(primitive.substring(1));
+    }
+    return new Specialization(name.toString(), primitives);
+  }
+
+  /**
+   * Reports the error on the value of the specialization in the annotation, so that javac, which reports only one
+   * error per position, reports the errors of every specialization. Types without the annotation, like the classes
+   * of {@link BulkGenerator}, get the error on the type.
+   */
+  private void printSpecializationError(TypeElement type, String value, String message) {
+    for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+      if (!((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+              .contentEquals(AutoInterface.class.getCanonicalName())) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> attribute
+              : annotation.getElementValues().entrySet()) {
+        if (!attribute.getKey().getSimpleName().contentEquals("specialize")) {
+          continue;
+        }
+        for (Object element : (List<?>) attribute.getValue().getValue()) {
+          if (value.equals(((AnnotationValue) element).getValue())) {
+            messager.printMessage(Diagnostic.Kind.ERROR, message, type, annotation, (AnnotationValue) element);
+            return;
+          }
+        }
+      }
+    }
+    messager.printMessage(Diagnostic.Kind.ERROR, message, type);
+  }
+
+  private static TypeKind getPrimitiveKind(String name) {
+    for (TypeKind kind : TypeKind.values()) {
+      if (kind.isPrimitive() && kind.name().toLowerCase(Locale.ROOT).equals(name)) {
+        return kind;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Creates {@code XLongInterface} with the methods of the main interface specialized, {@code XLongAdapter}
+   * implementing the main interface for the wrapper types by calling it, and the specialized decorator interface and
+   * class if the generic ones are generated. Returns no types after reporting an error if two methods of the
+   * specialized interface would have the same signature, like {@code put(K)} and {@code put(long)} specialized as
+   * {@code K=long}.
+   */
+  private List<JavaFile> createSpecializedTypes(TypeElement type, AutoInterface autoInterface, String packageName,
+          TypeName mainInterfaceTypeName, List<InterfaceMethod> methods, Specialization specialization) {
+    String pkg = autoInterface.pkg();
+    List<TypeVariableName> typeVariables = specialization.getTypeVariables(getTypeVariables(type));
+    ClassName interfaceName = getInterfaceClass(type, "", pkg, specialization.name + "Interface");
+    TypeName interfaceTypeName = typeVariables.isEmpty() ? interfaceName
+            : ParameterizedTypeName.get(interfaceName, typeVariables.toArray(new TypeName[0]));
+    TypeSpec.Builder specializedInterface = TypeSpec.interfaceBuilder(interfaceName)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addOriginatingElement(type);
+    List<InterfaceMethod> specializedMethods = new ArrayList<>(methods.size());
+    Set<String> signatures = new HashSet<>();
+    for (InterfaceMethod method : methods) {
+      MethodSpec spec = specialization.specialize(method.spec, true);
+      StringBuilder signature = new StringBuilder(spec.name).append('(');
+      for (ParameterSpec parameter : spec.parameters) {
+        signature.append(parameter.type).append(',');
+      }
+      if (!signatures.add(signature.append(')').toString())) {
+        messager.printMessage(Diagnostic.Kind.ERROR, "AutoInterface: " + interfaceName.simpleName()
+                + " would declare " + signature + " twice", method.element);
+        return Collections.emptyList();
+      }
+      specializedInterface.addMethod(spec);
+      specializedMethods.add(new InterfaceMethod(method.element, spec, method.id));
+    }
+    List<JavaFile> javaFiles = new ArrayList<>();
+    javaFiles.add(JavaFile.builder(packageName, specializedInterface.build()).indent("    ").build());
+
+    ClassName adapterName = getInterfaceClass(type, "", pkg, specialization.name + "Adapter");
+    TypeSpec.Builder adapter = TypeSpec.classBuilder(adapterName)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(typeVariables)
+            .addSuperinterface(ParameterizedTypeName.get(((ParameterizedTypeName) mainInterfaceTypeName).rawType,
+                    specialization.getTypeArguments(getTypeVariables(type))))
+            .addField(interfaceTypeName, "delegate", Modifier.PRIVATE, Modifier.FINAL)
+            .addMethod(MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(interfaceTypeName, "delegate")
+                    .addStatement("this.delegate = delegate")
+                    .build())
+            .addOriginatingElement(type);
+    for (InterfaceMethod method : methods) {
+      adapter.addMethod(createForwardingMethodSpec(specialization.specialize(method.spec, false))
+              .addStatement(createDelegateCall("this.delegate", method))
+              .build());
+    }
+    javaFiles.add(JavaFile.builder(packageName, adapter.build()).indent("    ").build());
+
+    if (autoInterface.createDecorator()) {
+      TypeSpec decoratorSpec = createDecoratorTypeSpec(type,
+              getInterfaceClass(type, "", pkg, specialization.name + "Decorator"), typeVariables, interfaceTypeName)
+              .addMethods(createDecoratorMethodSpec(interfaceTypeName, specializedMethods)).build();
+      javaFiles.add(JavaFile.builder(packageName, decoratorSpec).indent("    ").build());
+    }
+    if (autoInterface.createDecoratorClass()) {
+      javaFiles.add(JavaFile.builder(packageName, createDecoratorClassSpec(type,
+              ClassName.get(packageName, "Abstract" + getClassName(type) + specialization.name + "Decorator"),
+              typeVariables, interfaceTypeName, specializedMethods)).indent("    ").build());
+    }
+    return javaFiles;
+  }
+
+  /**
+   * Creates {@code XAsync}, which mirrors every method of the main interface returning a {@link CompletableFuture}
+   * of its result. Exceptions complete the future, so the methods declare none.
+   */
+  private TypeSpec createAsyncTypeSpec(ClassName asyncName, TypeElement type, List<InterfaceMethod> methods) {
+    TypeSpec.Builder async = TypeSpec.interfaceBuilder(asyncName)
             .addModifiers(Modifier.PUBLIC)
             .addTypeVariables(getTypeVariables(type))
-            .addSuperinterface(
-                    type.getTypeParameters().isEmpty() ?
-                        mainInterfaceIsRootElement ? ClassName.get(type) : ClassName.get(pkg, mainInterfaceSpec.name)
-                        : ParameterizedTypeName.get(
-                            mainInterfaceIsRootElement ? ClassName.get(type) : ClassName.get(pkg, mainInterfaceSpec.name),
-                            type.getTypeParameters().stream().map(it -> TypeName.get(it.asType())).toArray(TypeName[]::new)
-                        )
-            )
             .addOriginatingElement(type);
+    for (InterfaceMethod method : methods) {
+      async.addMethod(MethodSpec.methodBuilder(method.spec.name)
+              .addModifiers(Modifier.ABSTRACT, Modifier.PUBLIC)
+              .addTypeVariables(method.spec.typeVariables)
+              .returns(getAsyncReturnType(method.spec))
+              .addParameters(method.spec.parameters)
+              .build());
+    }
+    return async.build();
   }
 
-  private MethodSpec createMethodSpec(TypeElement rootType, ExecutableElement method) {
+  /**
+   * Creates {@code XAsyncAdapter}, which implements {@code XAsync} by calling the main interface on an executor,
+   * {@link AsyncCalls#defaultExecutor()} unless one is given.
+   */
+  private TypeSpec createAsyncAdapterSpec(ClassName asyncName, TypeElement type, TypeName mainInterfaceTypeName,
+          List<InterfaceMethod> methods) {
+    TypeSpec.Builder adapter = TypeSpec.classBuilder(asyncName.peerClass(asyncName.simpleName() + "Adapter"))
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(getTypeVariables(type))
+            .addSuperinterface(getTypeName(asyncName, type))
+            .addField(mainInterfaceTypeName, "delegate", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(Executor.class, "executor", Modifier.PRIVATE, Modifier.FINAL)
+            .addMethod(MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(mainInterfaceTypeName, "delegate")
+                    .addParameter(Executor.class, "executor")
+                    .addStatement("this.delegate = delegate")
+                    .addStatement("this.executor = executor")
+                    .build())
+            .addMethod(MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(mainInterfaceTypeName, "delegate")
+                    .addStatement("this(delegate, $T.defaultExecutor())", AsyncCalls.class)
+                    .build())
+            .addOriginatingElement(type);
+    for (InterfaceMethod method : methods) {
+      adapter.addMethod(MethodSpec.methodBuilder(method.spec.name)
+              .addAnnotation(Override.class)
+              .addModifiers(Modifier.PUBLIC)
+              .addTypeVariables(method.spec.typeVariables)
+              .returns(getAsyncReturnType(method.spec))
+              .addParameters(method.spec.parameters)
+              .addStatement("return $T.$L(this.executor, () -> this.delegate.$N($L))", AsyncCalls.class,
+                      method.returnsVoid() ? "run" : "call", method.spec.name, method.arguments())
+              .build());
+    }
+    return adapter.build();
+  }
+
+  /**
+   * Creates {@code XInterceptingProxy}, one link of an interceptor chain. Every method passes its arguments as they
+   * are to the typed method of the link's {@code Interceptor}, together with the next link. The methods are numbered
+   * by {@code int} constants, which the generic {@code before} and {@code after} hooks receive, so intercepting a
+   * call neither reflects, boxes nor allocates.
+   */
+  private TypeSpec createInterceptingProxySpec(ClassName className, TypeElement type, TypeName mainInterfaceTypeName,
+          List<InterfaceMethod> methods) {
+    ClassName interceptorClassName = className.nestedClass("Interceptor");
+    TypeName interceptorTypeName = getTypeName(interceptorClassName, type);
+    TypeSpec.Builder interceptor = TypeSpec.interfaceBuilder(interceptorClassName)
+            .addJavadoc("Intercepts the calls of one link. The typed methods call {@code before}, the next link and\n"
+                    + "{@code after} unless they are overridden.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(getTypeVariables(type))
+            .addMethod(MethodSpec.methodBuilder("before")
+                    .addJavadoc("Called before the method with the given ID, returns a token passed to {@code after}.\n")
+                    .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+                    .returns(TypeName.LONG)
+                    .addParameter(TypeName.INT, "method")
+                    .addStatement("return 0L")
+                    .build())
+            .addMethod(MethodSpec.methodBuilder("after")
+                    .addJavadoc("Called after the method with the given ID, with the exception it threw or {@code null}.\n")
+                    .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+                    .addParameter(TypeName.INT, "method")
+                    .addParameter(TypeName.LONG, "token")
+                    .addParameter(Throwable.class, "error")
+                    .build());
+    MethodSpec.Builder signature = MethodSpec.methodBuilder("signature")
+            .addJavadoc("Returns the name and parameter types of the method with the given ID.\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(String.class)
+            .addParameter(TypeName.INT, "method")
+            .beginControlFlow("switch (method)");
+    TypeSpec.Builder proxy = TypeSpec.classBuilder(className)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addTypeVariables(getTypeVariables(type))
+            .addSuperinterface(mainInterfaceTypeName)
+            .addOriginatingElement(type);
+    for (int i = 0; i < methods.size(); i++) {
+      InterfaceMethod method = methods.get(i);
+      String id = getMethodIdConstant(method);
+      proxy.addField(FieldSpec.builder(TypeName.INT, id, Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+              .initializer("$L", i)
+              .build());
+      signature.addStatement("case $N: return $S", id, method.signature());
+      proxy.addMethod(createForwardingMethodSpec(method.spec)
+              .addStatement("$Lthis.interceptor.$N(this.next$L)", method.returnsVoid() ? "" : "return ",
+                      method.spec.name, method.spec.parameters.isEmpty() ? "" : ", " + method.arguments())
+              .build());
+      interceptor.addMethod(createInterceptorMethodSpec(method, id, mainInterfaceTypeName));
+    }
+    signature.addStatement("default: throw new $T($S + method)", IllegalArgumentException.class, "Unknown method ")
+            .endControlFlow();
+
+    MethodSpec.Builder of = MethodSpec.methodBuilder("of")
+            .addJavadoc("Returns the delegate wrapped in a link per interceptor, the first interceptor being the\n"
+                    + "outermost.\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addTypeVariables(getTypeVariables(type))
+            .returns(mainInterfaceTypeName)
+            .addParameter(mainInterfaceTypeName, "delegate")
+            .addParameter(ArrayTypeName.of(interceptorTypeName), "interceptors")
+            .varargs()
+            .addStatement("$T proxy = delegate", mainInterfaceTypeName)
+            .beginControlFlow("for (int i = interceptors.length - 1; i >= 0; i--)")
+            .addStatement(type.getTypeParameters().isEmpty() ? "proxy = new $T(interceptors[i], proxy)"
+                    : "proxy = new $T<>(interceptors[i], proxy)", className)
+            .endControlFlow()
+            .addStatement("return proxy");
+    if (!type.getTypeParameters().isEmpty()) {
+      of.addAnnotation(SafeVarargs.class);
+    }
+    interceptor.addMethod(signature.build());
+    return proxy
+            .addField(interceptorTypeName, "interceptor", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(mainInterfaceTypeName, "next", Modifier.PRIVATE, Modifier.FINAL)
+            .addMethod(MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PRIVATE)
+                    .addParameter(interceptorTypeName, "interceptor")
+                    .addParameter(mainInterfaceTypeName, "next")
+                    .addStatement("this.interceptor = interceptor")
+                    .addStatement("this.next = next")
+                    .build())
+            .addMethod(of.build())
+            .addType(interceptor.build())
+            .build();
+  }
+
+  /**
+   * Creates the default method of {@code Interceptor} for a method of the main interface, which takes the next link
+   * followed by the arguments and calls the next link between the generic hooks.
+   */
+  private MethodSpec createInterceptorMethodSpec(InterfaceMethod method, String id, TypeName mainInterfaceTypeName) {
+    String next = method.local("next");
+    String token = method.local("token");
+    String result = method.local("result");
+    String error = method.local("error");
+    MethodSpec.Builder builder = MethodSpec.methodBuilder(method.spec.name)
+            .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+            .addTypeVariables(method.spec.typeVariables)
+            .returns(method.spec.returnType)
+            .addParameter(mainInterfaceTypeName, next)
+            .addParameters(method.spec.parameters)
+            .addExceptions(method.spec.exceptions)
+            .addStatement("long $N = before($N)", token, id);
+    if (!method.returnsVoid()) {
+      builder.addStatement("$T $N", method.spec.returnType, result);
+    }
+    builder.beginControlFlow("try")
+            .addStatement("$L$N.$N($L)", method.returnsVoid() ? "" : result + " = ", next, method.spec.name,
+                    method.arguments())
+            .nextControlFlow("catch ($T $N)", Throwable.class, error)
+            .addStatement("after($N, $N, $N)", id, token, error)
+            .addStatement("throw $N", error)
+            .endControlFlow()
+            .addStatement("after($N, $N, null)", id, token);
+    if (!method.returnsVoid()) {
+      builder.addStatement("return $N", result);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the name of the constant numbering a method, its ID in upper snake case like {@code FIND_BY_ID_2}.
+   */
+  private String getMethodIdConstant(InterfaceMethod method) {
+    return method.id.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+  }
+
+  private TypeName getAsyncReturnType(MethodSpec method) {
+    return ParameterizedTypeName.get(ClassName.get(CompletableFuture.class),
+            method.returnType.equals(TypeName.VOID) ? ClassName.get(Void.class) : method.returnType.box());
+  }
+
+  /**
+   * Starts a public {@code @Override} implementation of a method of the main interface.
+   */
+  private MethodSpec.Builder createForwardingMethodSpec(MethodSpec method) {
+    return MethodSpec.methodBuilder(method.name)
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addTypeVariables(method.typeVariables)
+            .returns(method.returnType)
+            .addParameters(method.parameters)
+            .addExceptions(method.exceptions);
+  }
+
+  /**
+   * Creates the statement calling the method on the delegate, returning its result unless it is {@code void}. The
+   * call is a single literal because JavaPoet splits every literal it emits on line breaks with a regular expression,
+   * which a format with an argument per part of the call would do once per part.
+   */
+  private CodeBlock createDelegateCall(String delegate, InterfaceMethod method) {
+    return CodeBlock.of("$L", (method.returnsVoid() ? "" : "return ") + delegate + "." + method.spec.name + "("
+            + method.arguments() + ")");
+  }
+
+  private TypeName getMainInterfaceTypeName(String pkg, TypeElement type, TypeSpec mainInterfaceSpec,
+          boolean mainInterfaceIsRootElement) {
+    return getTypeName(
+            mainInterfaceIsRootElement ? ClassName.get(type) : ClassName.get(pkg, mainInterfaceSpec.name), type);
+  }
+
+  /**
+   * Returns the generated type parameterized with the type variables of the annotated type.
+   */
+  private TypeName getTypeName(ClassName className, TypeElement type) {
+    return type.getTypeParameters().isEmpty() ? className : ParameterizedTypeName.get(className,
+            type.getTypeParameters().stream().map(it -> TypeName.get(it.asType())).toArray(TypeName[]::new));
+  }
+
+  private MethodSpec createMethodSpec(ExecutableElement method, ExecutableType methodType) {
     MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(method.getSimpleName().toString());
-    ExecutableType methodType =
-        (ExecutableType) typeUtils.asMemberOf((DeclaredType) rootType.asType(), method);
 
     List<? extends TypeMirror> paramTypes = methodType.getParameterTypes();
     List<? extends VariableElement> params = method.getParameters();
@@ -199,16 +1360,14 @@ public class AutoInterfaceProcessor extends AbstractProcessor {
               params.get(i).getSimpleName().toString())
               .build());
     }
+    for (TypeMirror thrownType : methodType.getThrownTypes()) {
+      methodBuilder.addException(TypeName.get(thrownType));
+    }
+    for (TypeParameterElement typeParameter : method.getTypeParameters()) {
+      methodBuilder.addTypeVariable(TypeVariableName.get(typeParameter));
+    }
     return methodBuilder
-        .returns(ClassName.get(methodType.getReturnType()))
-        .addExceptions(methodType.getThrownTypes()
-            .stream()
-            .map(ClassName::get)
-            .collect(Collectors.toList()))
-        .addTypeVariables(method.getTypeParameters()
-            .stream()
-            .map(TypeVariableName::get)
-            .collect(Collectors.toList()))
+        .returns(TypeName.get(methodType.getReturnType()))
         .addModifiers(Modifier.ABSTRACT, Modifier.PUBLIC)
         .build();
   }
@@ -241,13 +1400,14 @@ public class AutoInterfaceProcessor extends AbstractProcessor {
     }
   }
 
-  private Set<String> getObjectMethodSignatures() {
-    return elementUtils.getTypeElement("java.lang.Object")
-        .getEnclosedElements().stream()
-        .filter(e -> e.getKind().equals(ElementKind.METHOD))
-        .map(ExecutableElement.class::cast)
-        .filter(e -> !e.getModifiers().contains(Modifier.STATIC))
-        .map(ExecutableElement::toString)
-        .collect(Collectors.toSet());
+  private Map<Name, List<ExecutableElement>> getObjectMethods() {
+    Map<Name, List<ExecutableElement>> methods = new HashMap<>();
+    for (ExecutableElement method
+        : ElementFilter.methodsIn(elementUtils.getTypeElement("java.lang.Object").getEnclosedElements())) {
+      if (!method.getModifiers().contains(Modifier.STATIC)) {
+        methods.computeIfAbsent(method.getSimpleName(), it -> new ArrayList<>()).add(method);
+      }
+    }
+    return methods;
   }
 }
@@ -0,0 +1,16 @@
+package com.highstakes.autointerface;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Execute calls of a {@code void} method on the background thread of the batching decorator generated with
+ * {@link AutoInterface#createBatchingDecorator()}. Exceptions thrown by the calls go to the error handler of its
+ * {@code WriteBehindQueue}.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD})
+public @interface Batched {
+}
@@ -0,0 +1,88 @@
+package com.highstakes.autointerface;
+
+import com.highstakes.autointerface.runtime.WriteBehindQueue;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.Collections;
+import java.util.List;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Enqueues calls of methods annotated with {@link Batched} onto a {@link WriteBehindQueue} instead of calling the
+ * delegate. Each call is a lambda capturing the arguments, which runs the wrapped body when the queue executes it, so
+ * in a fused decorator the behaviours after this one apply to the call of the delegate on the queue's thread. Adds
+ * {@code flush()} and {@code close()} to the decorator; if the interface has them already, they flush or close the
+ * queue before being forwarded.
+ */
+final class BatchingBehaviour extends DecoratorBehaviour {
+  static final String FLUSH = "flush";
+  static final String CLOSE = "close";
+
+  private static final ClassName QUEUE = ClassName.get(WriteBehindQueue.class);
+
+  @Override
+  boolean appliesTo(InterfaceMethod method) {
+    return isLifecycleMethod(method) || method.element.getAnnotation(Batched.class) != null && method.returnsVoid();
+  }
+
+  @Override
+  List<ParameterSpec> getConstructorParameters() {
+    return Collections.singletonList(ParameterSpec.builder(QUEUE, "queue").build());
+  }
+
+  @Override
+  List<CodeBlock> getDefaultArguments() {
+    return Collections.singletonList(CodeBlock.of("new $T()", QUEUE));
+  }
+
+  @Override
+  void addMembers(TypeSpec.Builder decorator, MethodSpec.Builder constructor, List<InterfaceMethod> methods) {
+    decorator.addSuperinterface(AutoCloseable.class)
+            .addField(QUEUE, "queue", Modifier.PRIVATE, Modifier.FINAL);
+    constructor.addStatement("this.queue = queue");
+    if (methods.stream().noneMatch(it -> isLifecycleMethod(it) && it.spec.name.equals(FLUSH))) {
+      decorator.addMethod(MethodSpec.methodBuilder(FLUSH)
+              .addJavadoc("Blocks until every call enqueued before was executed.\n")
+              .addModifiers(Modifier.PUBLIC)
+              .addStatement("this.queue.flush()")
+              .build());
+    }
+    if (methods.stream().noneMatch(it -> isLifecycleMethod(it) && it.spec.name.equals(CLOSE))) {
+      decorator.addMethod(MethodSpec.methodBuilder(CLOSE)
+              .addJavadoc("Executes the enqueued calls and stops the queue.\n")
+              .addAnnotation(Override.class)
+              .addModifiers(Modifier.PUBLIC)
+              .addStatement("this.queue.close()")
+              .build());
+    }
+  }
+
+  @Override
+  Body wrap(InterfaceMethod method, Body body) {
+    if (isLifecycleMethod(method)) {
+      return target -> CodeBlock.builder()
+              .addStatement("this.queue.$N()", method.spec.name)
+              .add(body.create(target))
+              .build();
+    }
+    return target -> CodeBlock.builder()
+            .add("this.queue.enqueue(() -> {\n$>")
+            .add(body.create(null))
+            .add("$<});\n")
+            .build();
+  }
+
+  /**
+   * Whether the method is a {@code flush()} or {@code close()} of the interface, which the decorator must implement
+   * by flushing or closing its queue. Such methods must return {@code void}.
+   */
+  static boolean isLifecycleMethod(InterfaceMethod method) {
+    return (method.spec.name.equals(FLUSH) || method.spec.name.equals(CLOSE))
+            && method.spec.parameters.isEmpty()
+            && method.spec.typeVariables.isEmpty();
+  }
+}
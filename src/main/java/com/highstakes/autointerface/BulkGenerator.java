@@ -0,0 +1,433 @@
+package com.highstakes.autointerface;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates interfaces and decorators for classes of compiled jars, like third-party classes that are {@code final}.
+ * The classes are read from their class files by javac, which runs {@link AutoInterfaceProcessor} on them with the
+ * given {@link AutoInterface} settings, so the output is the same as for an annotated source file.
+ *
+ * <pre>
+ * java -cp autointerface.jar:javapoet.jar com.highstakes.autointerface.BulkGenerator \
+ *     --jars lib/client.jar --output build/generated/autointerface --cache build/autointerface-cache \
+ *     --set createDecoratorClass=true com.example.client.** com.example.util.Clock
+ * </pre>
+ *
+ * <p>Patterns are class names, {@code package.*} for the classes of a package or {@code package.**} for the classes
+ * of a package and its subpackages. Classes are split between {@code --threads} javac tasks. With {@code --cache}
+ * the generated files are stored by a SHA-256 of the contents of the jars, the classpath jars and directories and the
+ * jar of the processor and of the arguments, and copied from there while none of them changes.
+ */
+public final class BulkGenerator {
+  /**
+   * Version of the cache layout and of the generated files, part of every cache key.
+   */
+  private static final String CACHE_VERSION = "2";
+
+  private final List<Path> jars = new ArrayList<>();
+  private final List<Path> classpath = new ArrayList<>();
+  private final List<String> patterns = new ArrayList<>();
+  private final Map<String, Object> settings = new TreeMap<>();
+  private Path output;
+  private Path cache;
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  private BulkGenerator() {
+  }
+
+  public static void main(String[] args) {
+    System.exit(run(args, System.err));
+  }
+
+  /**
+   * Generates the files and returns the exit code, 0 on success, reporting errors to the stream.
+   */
+  static int run(String[] args, PrintStream err) {
+    BulkGenerator generator = new BulkGenerator();
+    try {
+      generator.parse(args);
+    } catch (IllegalArgumentException e) {
+      err.println("AutoInterface: " + e.getMessage());
+      err.println("Usage: BulkGenerator --jars <jar>[" + File.pathSeparator + "<jar>...] --output <dir> "
+          + "[--classpath <path>] [--cache <dir>] [--threads <n>] [--set <attribute>=<value>...] <pattern>...");
+      return 2;
+    }
+    try {
+      return generator.generate(err) ? 0 : 1;
+    } catch (IOException | UncheckedIOException e) {
+      err.println("AutoInterface: " + e.getMessage());
+      return 1;
+    }
+  }
+
+  private void parse(String[] args) {
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (!arg.startsWith("--")) {
+        patterns.add(arg);
+        continue;
+      }
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException("Missing value of " + arg);
+      }
+      String value = args[++i];
+      switch (arg) {
+        case "--jars":
+          jars.addAll(toPaths(value));
+          break;
+        case "--classpath":
+          classpath.addAll(toPaths(value));
+          break;
+        case "--output":
+          output = Paths.get(value);
+          break;
+        case "--cache":
+          cache = Paths.get(value);
+          break;
+        case "--threads":
+          threads = Math.max(1, Integer.parseInt(value));
+          break;
+        case "--set":
+          set(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + arg);
+      }
+    }
+    if (jars.isEmpty() || output == null || patterns.isEmpty()) {
+      throw new IllegalArgumentException("--jars, --output and at least one pattern are required");
+    }
+  }
+
+  private static List<Path> toPaths(String value) {
+    return Arrays.stream(value.split(Pattern.quote(File.pathSeparator)))
+        .filter(it -> !it.isEmpty())
+        .map(Paths::get)
+        .collect(Collectors.toList());
+  }
+
+  private void set(String setting) {
+    int separator = setting.indexOf('=');
+    String attribute = separator == -1 ? setting : setting.substring(0, separator);
+    Method method;
+    try {
+      method = AutoInterface.class.getMethod(attribute);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalArgumentException("Unknown attribute " + attribute + " of @AutoInterface");
+    }
+    if (attribute.equals("name") || attribute.endsWith("Name")) {
+      // One name for every class would make all of them generate the same file
+      throw new IllegalArgumentException("Names are generated per class, " + attribute + " cannot be set");
+    }
+    if (attribute.equals("specialize")) {
+      // Type variables differ from class to class
+      throw new IllegalArgumentException("Specializations name type variables per class, specialize cannot be set");
+    }
+    String value = separator == -1 ? "true" : setting.substring(separator + 1);
+    settings.put(attribute, parse(method.getReturnType(), value));
+  }
+
+  /**
+   * Parses the value of an attribute, a list of constants separated by commas for enum arrays.
+   */
+  private static Object parse(Class<?> type, String value) {
+    if (type == boolean.class) {
+      return Boolean.valueOf(value);
+    }
+    if (type.isArray() && type.getComponentType().isEnum()) {
+      List<String> names = Arrays.stream(value.split(","))
+          .map(String::trim)
+          .filter(it -> !it.isEmpty())
+          .collect(Collectors.toList());
+      Object array = Array.newInstance(type.getComponentType(), names.size());
+      for (int i = 0; i < names.size(); i++) {
+        Array.set(array, i, toEnum(type.getComponentType(), names.get(i)));
+      }
+      return array;
+    }
+    return value;
+  }
+
+  private static Object toEnum(Class<?> type, String name) {
+    for (Object constant : type.getEnumConstants()) {
+      if (((Enum<?>) constant).name().equals(name)) {
+        return constant;
+      }
+    }
+    throw new IllegalArgumentException("Unknown constant " + name + " of " + type.getSimpleName());
+  }
+
+  private boolean generate(PrintStream err) throws IOException {
+    List<String> classNames = findClasses();
+    if (classNames.isEmpty()) {
+      err.println("AutoInterface: No classes of " + jars + " match " + patterns);
+      return false;
+    }
+    // Generated decorators use the runtime classes, which ship with the processor
+    classpath.add(getProcessorPath());
+    if (cache == null) {
+      return generate(classNames, output, err);
+    }
+    Path cached = cache.resolve(getCacheKey(classNames));
+    if (!Files.isDirectory(cached)) {
+      Files.createDirectories(cache);
+      Path temporary = Files.createTempDirectory(cache, "generating");
+      if (!generate(classNames, temporary, err)) {
+        delete(temporary);
+        return false;
+      }
+      try {
+        Files.move(temporary, cached, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        if (!Files.isDirectory(cached)) {
+          throw e;
+        }
+        // Generated by a concurrent build in the meantime, with the same contents
+        delete(temporary);
+      }
+    }
+    copy(cached, output);
+    return true;
+  }
+
+  /**
+   * Returns the jar or class directory the processor is loaded from.
+   */
+  private static Path getProcessorPath() throws IOException {
+    CodeSource codeSource = AutoInterfaceProcessor.class.getProtectionDomain().getCodeSource();
+    if (codeSource == null) {
+      throw new IOException("Cannot locate the classes of " + AutoInterfaceProcessor.class.getName());
+    }
+    try {
+      return Paths.get(codeSource.getLocation().toURI());
+    } catch (URISyntaxException e) {
+      throw new IOException("Cannot locate the classes of " + AutoInterfaceProcessor.class.getName(), e);
+    }
+  }
+
+  /**
+   * Lists the top-level and member classes of the jars whose canonical names match a pattern, by their binary names.
+   */
+  private List<String> findClasses() throws IOException {
+    List<Pattern> regexes = patterns.stream().map(BulkGenerator::toRegex).collect(Collectors.toList());
+    TreeSet<String> classNames = new TreeSet<>();
+    for (Path jar : jars) {
+      try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+          String className = toClassName(entries.nextElement().getName());
+          if (className != null
+              && regexes.stream().anyMatch(it -> it.matcher(className.replace('$', '.')).matches())) {
+            classNames.add(className);
+          }
+        }
+      }
+    }
+    return new ArrayList<>(classNames);
+  }
+
+  static Pattern toRegex(String pattern) {
+    if (pattern.endsWith(".**")) {
+      return Pattern.compile(Pattern.quote(pattern.substring(0, pattern.length() - 2)) + ".+");
+    }
+    if (pattern.endsWith(".*")) {
+      return Pattern.compile(Pattern.quote(pattern.substring(0, pattern.length() - 1)) + "[^.]+");
+    }
+    return Pattern.compile(Pattern.quote(pattern));
+  }
+
+  /**
+   * Returns the binary name of the class of a jar entry, or {@code null} for other entries and for anonymous and local
+   * classes, whose binary names have a segment starting with a digit.
+   */
+  static String toClassName(String entryName) {
+    if (!entryName.endsWith(".class") || entryName.startsWith("META-INF/")
+        || entryName.endsWith("module-info.class") || entryName.endsWith("package-info.class")) {
+      return null;
+    }
+    String binaryName = entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+    String[] segments = binaryName.split("\\$", -1);
+    for (int i = 1; i < segments.length; i++) {
+      if (segments[i].isEmpty() || Character.isDigit(segments[i].charAt(0))) {
+        return null;
+      }
+    }
+    return binaryName;
+  }
+
+  /**
+   * Runs a javac task per thread on a share of the classes, writing the generated files to the directory.
+   */
+  private boolean generate(List<String> classNames, Path directory, PrintStream err) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IOException("No Java compiler found, run BulkGenerator on a JDK");
+    }
+    Files.createDirectories(directory);
+    List<String> options = Arrays.asList("-proc:only", "-implicit:none", "-s", directory.toString(),
+        "-classpath", Stream.concat(jars.stream(), classpath.stream())
+            .map(Path::toString)
+            .collect(Collectors.joining(File.pathSeparator)));
+    AutoInterface autoInterface = createSettings();
+    int tasks = Math.min(threads, classNames.size());
+    ExecutorService executor = Executors.newFixedThreadPool(tasks);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>(tasks);
+      for (int i = 0; i < tasks; i++) {
+        List<String> share = new ArrayList<>();
+        for (int j = i; j < classNames.size(); j += tasks) {
+          share.add(classNames.get(j));
+        }
+        results.add(executor.submit(() -> {
+          JavaCompiler.CompilationTask task =
+              compiler.getTask(new PrintWriter(err, true), null, null, options, share, null);
+          task.setProcessors(Collections.singletonList(new AutoInterfaceProcessor(autoInterface)));
+          return task.call();
+        }));
+      }
+      boolean success = true;
+      for (Future<Boolean> result : results) {
+        success &= result.get();
+      }
+      return success;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while generating", e);
+    } catch (ExecutionException e) {
+      // javac reports compilation errors itself, so this is a crash of javac or of the processor
+      err.println("AutoInterface: Failed to generate: " + e.getCause());
+      return false;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Creates the {@link AutoInterface} settings, the values set on the command line and the defaults otherwise.
+   */
+  private AutoInterface createSettings() {
+    return (AutoInterface) Proxy.newProxyInstance(AutoInterface.class.getClassLoader(),
+        new Class<?>[] {AutoInterface.class}, (proxy, method, args) -> {
+          if (method.getName().equals("annotationType")) {
+            return AutoInterface.class;
+          }
+          if (method.getDeclaringClass() != AutoInterface.class) {
+            throw new UnsupportedOperationException(method.getName());
+          }
+          return settings.containsKey(method.getName()) ? settings.get(method.getName()) : method.getDefaultValue();
+        });
+  }
+
+  private String getCacheKey(List<String> classNames) throws IOException {
+    MessageDigest digest = sha256();
+    update(digest, CACHE_VERSION);
+    for (Map.Entry<String, Object> setting : settings.entrySet()) {
+      Object value = setting.getValue();
+      update(digest, setting.getKey() + "=" + (value instanceof Object[] ? Arrays.toString((Object[]) value) : value));
+    }
+    update(digest, String.join(",", classNames));
+    ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    for (Path jar : Stream.concat(jars.stream(), classpath.stream()).collect(Collectors.toList())) {
+      update(digest, jar.getFileName().toString());
+      if (Files.isRegularFile(jar)) {
+        update(digest, jar, buffer);
+      } else if (Files.isDirectory(jar)) {
+        // Class directories of other modules change without changing their name
+        try (Stream<Path> files = Files.walk(jar)) {
+          for (Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+            update(digest, jar.relativize(file).toString().replace(File.separatorChar, '/'));
+            update(digest, file, buffer);
+          }
+        }
+      }
+    }
+    StringBuilder key = new StringBuilder();
+    for (byte b : digest.digest()) {
+      key.append(String.format("%02x", b));
+    }
+    return key.toString();
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private static void update(MessageDigest digest, Path file, ByteBuffer buffer) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      update(digest, Long.toString(channel.size()));
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+  }
+
+  private static void copy(Path from, Path to) throws IOException {
+    try (Stream<Path> files = Files.walk(from)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Path target = to.resolve(from.relativize(file).toString());
+        if (Files.isDirectory(file)) {
+          Files.createDirectories(target);
+        } else {
+          Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+      }
+    }
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.highstakes.autointerface;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Memoize the return values of a method in the caching decorator generated with
+ * {@link AutoInterface#createCachingDecorator()}. Arguments are compared with {@code equals}, {@code null} results
+ * and exceptions are not cached. The method must not be {@code void}, declare type variables or take arrays, which
+ * would be compared by identity.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD})
+public @interface Cached {
+  /**
+   * Number of results to keep, rounded up to a power of two multiple of 8. Defaults to 1024.
+   */
+  int maximumSize() default 1024;
+
+  /**
+   * Milliseconds after which a result is computed again. Defaults to 0, which keeps results until they are evicted.
+   */
+  long expireAfterWriteMillis() default 0;
+}
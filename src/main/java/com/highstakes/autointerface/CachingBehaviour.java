@@ -0,0 +1,176 @@
+package com.highstakes.autointerface;
+
+import com.highstakes.autointerface.runtime.LongCache;
+import com.highstakes.autointerface.runtime.LongPairCache;
+import com.highstakes.autointerface.runtime.ObjectCache;
+import com.highstakes.autointerface.runtime.PairCache;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Memoizes the results of methods annotated with {@link Cached} in a cache field per method. Methods without
+ * parameters, with a single primitive parameter or with two primitive parameters that fit in an {@code int} each use a
+ * {@link LongCache}, so the key is not boxed; two primitive parameters of which one is a {@code long} or
+ * {@code double} use a {@link LongPairCache}. Methods with one or two parameters otherwise use an {@link ObjectCache}
+ * or {@link PairCache}, which store the arguments without a key object. Methods with more parameters are keyed by a
+ * list of their arguments.
+ */
+final class CachingBehaviour extends DecoratorBehaviour {
+  private static final ClassName LONG_CACHE = ClassName.get(LongCache.class);
+  private static final ClassName LONG_PAIR_CACHE = ClassName.get(LongPairCache.class);
+  private static final ClassName OBJECT_CACHE = ClassName.get(ObjectCache.class);
+  private static final ClassName PAIR_CACHE = ClassName.get(PairCache.class);
+  private static final TypeName ARGUMENTS = ParameterizedTypeName.get(List.class, Object.class);
+
+  @Override
+  boolean appliesTo(InterfaceMethod method) {
+    return method.element.getAnnotation(Cached.class) != null
+            && !method.returnsVoid()
+            && method.spec.typeVariables.isEmpty()
+            && !hasArrayParameter(method);
+  }
+
+  /**
+   * Returns whether the method takes an array, which would be compared by identity and so never hit the cache.
+   */
+  static boolean hasArrayParameter(InterfaceMethod method) {
+    return method.spec.parameters.stream().anyMatch(it -> it.type instanceof ArrayTypeName);
+  }
+
+  @Override
+  void addMembers(TypeSpec.Builder decorator, MethodSpec.Builder constructor, List<InterfaceMethod> methods) {
+    for (InterfaceMethod method : methods) {
+      Cached cached = method.element.getAnnotation(Cached.class);
+      decorator.addField(getCacheType(method), getField(method), Modifier.PRIVATE, Modifier.FINAL);
+      constructor.addStatement("this.$N = new $T<>($L, $LL)", getField(method), getCacheType(method).rawType,
+              cached.maximumSize(), cached.expireAfterWriteMillis());
+    }
+  }
+
+  @Override
+  Body wrap(InterfaceMethod method, Body body) {
+    String cached = method.local("cached");
+    String key = method.local("key");
+    List<ParameterSpec> parameters = method.spec.parameters;
+    CodeBlock keys = getKeys(parameters, key);
+    return target -> {
+      CodeBlock.Builder code = CodeBlock.builder();
+      if (parameters.size() > 2) {
+        code.addStatement("$T $N = $T.<$T>asList($L)", ARGUMENTS, key, Arrays.class, Object.class,
+                method.arguments());
+      } else if (isPackedPair(parameters)) {
+        code.addStatement("long $N = (long) $L << 32 | $L & 0xFFFFFFFFL", key, getIntKey(parameters.get(0)),
+                getIntKey(parameters.get(1)));
+      }
+      return code
+              .addStatement("$T $N = this.$N.get($L)", method.spec.returnType.box(), cached, getField(method),
+                      keys)
+              .beginControlFlow("if ($N == null)", cached)
+              .add(body.create(cached))
+              .addStatement("this.$N.put($L, $N)", getField(method), keys, cached)
+              .endControlFlow()
+              .add(result(target, CodeBlock.of("$N", cached)))
+              .build();
+    };
+  }
+
+  private ParameterizedTypeName getCacheType(InterfaceMethod method) {
+    TypeName value = method.spec.returnType.box();
+    List<ParameterSpec> parameters = method.spec.parameters;
+    if (parameters.isEmpty() || parameters.size() == 1 && parameters.get(0).type.isPrimitive()
+            || isPackedPair(parameters)) {
+      return ParameterizedTypeName.get(LONG_CACHE, value);
+    }
+    if (isPrimitivePair(parameters)) {
+      return ParameterizedTypeName.get(LONG_PAIR_CACHE, value);
+    }
+    if (parameters.size() == 1) {
+      return ParameterizedTypeName.get(OBJECT_CACHE, parameters.get(0).type, value);
+    }
+    if (parameters.size() == 2) {
+      return ParameterizedTypeName.get(PAIR_CACHE, parameters.get(0).type.box(), parameters.get(1).type.box(),
+              value);
+    }
+    return ParameterizedTypeName.get(OBJECT_CACHE, ARGUMENTS, value);
+  }
+
+  private CodeBlock getKeys(List<ParameterSpec> parameters, String key) {
+    if (parameters.isEmpty()) {
+      return CodeBlock.of("0L");
+    }
+    if (parameters.size() == 1 && parameters.get(0).type.isPrimitive()) {
+      return getKey(parameters.get(0));
+    }
+    if (isPackedPair(parameters)) {
+      return CodeBlock.of("$N", key);
+    }
+    if (isPrimitivePair(parameters)) {
+      return CodeBlock.of("$L, $L", getKey(parameters.get(0)), getKey(parameters.get(1)));
+    }
+    if (parameters.size() <= 2) {
+      return CodeBlock.join(parameters.stream().map(it -> CodeBlock.of("$N", it)).collect(Collectors.toList()), ", ");
+    }
+    return CodeBlock.of("$N", key);
+  }
+
+  /**
+   * Returns the key expression of a primitive parameter. A primitive parameter is widened or mapped to its bits the way
+   * its wrapper's {@code equals} compares it, so {@code -0.0} and {@code 0.0} stay different keys.
+   */
+  private CodeBlock getKey(ParameterSpec parameter) {
+    if (parameter.type.equals(TypeName.BOOLEAN)) {
+      return CodeBlock.of("$N ? 1L : 0L", parameter);
+    }
+    if (parameter.type.equals(TypeName.FLOAT)) {
+      return CodeBlock.of("$T.floatToIntBits($N)", Float.class, parameter);
+    }
+    if (parameter.type.equals(TypeName.DOUBLE)) {
+      return CodeBlock.of("$T.doubleToLongBits($N)", Double.class, parameter);
+    }
+    return CodeBlock.of("$N", parameter);
+  }
+
+  /**
+   * Returns the key expression of a primitive parameter that fits in an {@code int}, mapped the same way as by
+   * {@link #getKey(ParameterSpec)}.
+   */
+  private CodeBlock getIntKey(ParameterSpec parameter) {
+    if (parameter.type.equals(TypeName.BOOLEAN)) {
+      return CodeBlock.of("($N ? 1 : 0)", parameter);
+    }
+    if (parameter.type.equals(TypeName.FLOAT)) {
+      return CodeBlock.of("$T.floatToIntBits($N)", Float.class, parameter);
+    }
+    return CodeBlock.of("$N", parameter);
+  }
+
+  private static boolean isPrimitivePair(List<ParameterSpec> parameters) {
+    return parameters.size() == 2 && parameters.get(0).type.isPrimitive() && parameters.get(1).type.isPrimitive();
+  }
+
+  /**
+   * Returns whether the method has two primitive parameters that are packed into one {@code long} key.
+   */
+  private static boolean isPackedPair(List<ParameterSpec> parameters) {
+    return isPrimitivePair(parameters) && !isWide(parameters.get(0).type) && !isWide(parameters.get(1).type);
+  }
+
+  private static boolean isWide(TypeName type) {
+    return type.equals(TypeName.LONG) || type.equals(TypeName.DOUBLE);
+  }
+
+  private String getField(InterfaceMethod method) {
+    return method.id + "Cache";
+  }
+}
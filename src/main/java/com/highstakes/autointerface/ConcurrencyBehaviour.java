@@ -0,0 +1,151 @@
+package com.highstakes.autointerface;
+
+import com.highstakes.autointerface.runtime.StripedLock;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Guards every method with a {@link StripedLock}: reads with read locks, writes with write locks, see {@link Read}
+ * and {@link Write}. Optimistic reads call the delegate without a lock and repeat the call under the read lock if
+ * the stamp does not validate afterwards; an exception is rethrown only if the stamp validates. Only a bare delegate
+ * call is repeated like that: in a fused decorator, optimistic reads of methods a later behaviour applies to take
+ * the read lock like other reads, since that behaviour must not run twice for one call.
+ */
+final class ConcurrencyBehaviour extends DecoratorBehaviour {
+  private static final ClassName STRIPED_LOCK = ClassName.get(StripedLock.class);
+  private static final List<String> READ_PREFIXES = Arrays.asList("get", "is", "has", "contains", "find");
+  private static final List<String> READ_NAMES = Arrays.asList("size", "count");
+
+  @Override
+  List<ParameterSpec> getConstructorParameters() {
+    return Collections.singletonList(ParameterSpec.builder(TypeName.INT, "stripes").build());
+  }
+
+  @Override
+  List<CodeBlock> getDefaultArguments() {
+    return Collections.singletonList(CodeBlock.of("1"));
+  }
+
+  @Override
+  void addMembers(TypeSpec.Builder decorator, MethodSpec.Builder constructor, List<InterfaceMethod> methods) {
+    decorator.addField(STRIPED_LOCK, "locks", Modifier.PRIVATE, Modifier.FINAL);
+    constructor.addStatement("this.locks = new $T(stripes)", STRIPED_LOCK);
+  }
+
+  @Override
+  Body wrap(InterfaceMethod method, Body body) {
+    boolean read = isRead(method);
+    boolean striped = isStriped(method);
+    Read readAnnotation = method.element.getAnnotation(Read.class);
+    if (read && readAnnotation != null && readAnnotation.optimistic() && body instanceof DelegateCall) {
+      return wrapOptimisticRead(method, body, striped);
+    }
+    String lock = method.local("lock");
+    String stamp = method.local("stamp");
+    String mode = read ? "Read" : "Write";
+    if (striped) {
+      return target -> CodeBlock.builder()
+              .addStatement("$T $N = this.locks.stripe($N)", StampedLock.class, lock, method.spec.parameters.get(0))
+              .addStatement("long $N = $N.$L()", stamp, lock, read ? "readLock" : "writeLock")
+              .beginControlFlow("try")
+              .add(body.create(target))
+              .nextControlFlow("finally")
+              .addStatement("$N.unlock$L($N)", lock, mode, stamp)
+              .endControlFlow()
+              .build();
+    }
+    return target -> CodeBlock.builder()
+            .addStatement("this.locks.$LLockAll()", read ? "read" : "write")
+            .beginControlFlow("try")
+            .add(body.create(target))
+            .nextControlFlow("finally")
+            .addStatement("this.locks.unlock$LAll()", mode)
+            .endControlFlow()
+            .build();
+  }
+
+  private Body wrapOptimisticRead(InterfaceMethod method, Body body, boolean striped) {
+    String lock = method.local("lock");
+    String stamp = method.local("stamp");
+    String value = method.local("value");
+    String valid = method.local("valid");
+    String error = method.local("error");
+    String locks = striped ? lock : "this.locks";
+    return target -> {
+      CodeBlock.Builder code = CodeBlock.builder();
+      if (striped) {
+        code.addStatement("$T $N = this.locks.stripe($N)", StampedLock.class, lock, method.spec.parameters.get(0));
+      }
+      code.addStatement("long $N = $L.tryOptimisticRead()", stamp, locks);
+      if (!method.returnsVoid()) {
+        code.addStatement("$T $N = $L", method.spec.returnType, value, getDefaultValue(method.spec.returnType));
+      }
+      code.addStatement("boolean $N = false", valid)
+              .beginControlFlow("if ($N != 0L)", stamp)
+              .beginControlFlow("try")
+              .add(body.create(value))
+              .addStatement("$N = $L.validate($N)", valid, locks, stamp)
+              .nextControlFlow("catch ($T $N)", Throwable.class, error)
+              .beginControlFlow("if ($L.validate($N))", locks, stamp)
+              .addStatement("throw $N", error)
+              .endControlFlow()
+              .endControlFlow()
+              .endControlFlow()
+              .beginControlFlow("if (!$N)", valid);
+      if (striped) {
+        code.addStatement("$N = $N.readLock()", stamp, lock);
+      } else {
+        code.addStatement("this.locks.readLockAll()");
+      }
+      code.beginControlFlow("try")
+              .add(body.create(value))
+              .nextControlFlow("finally");
+      if (striped) {
+        code.addStatement("$N.unlockRead($N)", lock, stamp);
+      } else {
+        code.addStatement("this.locks.unlockReadAll()");
+      }
+      code.endControlFlow()
+              .endControlFlow();
+      if (!method.returnsVoid()) {
+        code.add(result(target, CodeBlock.of("$N", value)));
+      }
+      return code.build();
+    };
+  }
+
+  private CodeBlock getDefaultValue(TypeName type) {
+    if (type.equals(TypeName.BOOLEAN)) {
+      return CodeBlock.of("false");
+    }
+    return type.isPrimitive() ? CodeBlock.of("0") : CodeBlock.of("null");
+  }
+
+  static boolean isRead(InterfaceMethod method) {
+    if (method.element.getAnnotation(Write.class) != null) {
+      return false;
+    }
+    if (method.element.getAnnotation(Read.class) != null) {
+      return true;
+    }
+    String name = method.spec.name;
+    return READ_NAMES.contains(name) || READ_PREFIXES.stream().anyMatch(prefix -> name.equals(prefix)
+            || name.startsWith(prefix) && Character.isUpperCase(name.charAt(prefix.length())));
+  }
+
+  static boolean isStriped(InterfaceMethod method) {
+    Read read = method.element.getAnnotation(Read.class);
+    Write write = method.element.getAnnotation(Write.class);
+    return read != null && read.striped() || write != null && write.striped();
+  }
+}
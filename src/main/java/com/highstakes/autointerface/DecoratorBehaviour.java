@@ -0,0 +1,80 @@
+package com.highstakes.autointerface;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A behaviour of a generated decorator class, like recording metrics. A behaviour adds its fields to the decorator
+ * and wraps the body of every method it applies to. Several behaviours wrap each other in the order they are given,
+ * the first one outermost, so one decorator class can combine them without a delegation hop per behaviour.
+ */
+abstract class DecoratorBehaviour {
+
+  /**
+   * The body of a decorator method, created for a target variable to assign the result to. A {@code null} target
+   * returns the result instead. Bodies of {@code void} methods are always created without a target.
+   */
+  interface Body {
+    CodeBlock create(String target);
+  }
+
+  /**
+   * The innermost body, which only calls the method on the delegate, for behaviours that can only repeat a bare call.
+   */
+  static final class DelegateCall implements Body {
+    private final InterfaceMethod method;
+
+    DelegateCall(InterfaceMethod method) {
+      this.method = method;
+    }
+
+    @Override
+    public CodeBlock create(String target) {
+      return method.returnsVoid()
+              ? CodeBlock.of("this.delegate.$N($L);\n", method.spec.name, method.arguments())
+              : result(target, CodeBlock.of("this.delegate.$N($L)", method.spec.name, method.arguments()));
+    }
+  }
+
+  /**
+   * Whether calls of the method go through this behaviour. Other methods are forwarded to the delegate as is.
+   */
+  boolean appliesTo(InterfaceMethod method) {
+    return true;
+  }
+
+  /**
+   * Returns the constructor parameters of this behaviour, which follow the delegate.
+   */
+  List<ParameterSpec> getConstructorParameters() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns the value passed for each constructor parameter by the constructor taking only the delegate, or
+   * {@code null} if a parameter has no default.
+   */
+  List<CodeBlock> getDefaultArguments() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Adds the fields and extra methods of this behaviour to the decorator and initializes the fields in its
+   * constructor. Only the methods this behaviour applies to are passed.
+   */
+  abstract void addMembers(TypeSpec.Builder decorator, MethodSpec.Builder constructor, List<InterfaceMethod> methods);
+
+  abstract Body wrap(InterfaceMethod method, Body body);
+
+  /**
+   * Returns the statement handing a value to the target of a {@link Body}.
+   */
+  static CodeBlock result(String target, CodeBlock value) {
+    return target == null ? CodeBlock.of("return $L;\n", value) : CodeBlock.of("$N = $L;\n", target, value);
+  }
+}
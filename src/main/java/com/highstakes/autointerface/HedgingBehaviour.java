@@ -0,0 +1,87 @@
+package com.highstakes.autointerface;
+
+import com.highstakes.autointerface.runtime.HedgedMethod;
+import com.highstakes.autointerface.runtime.HedgingPolicy;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Hedges calls of methods annotated with {@link Idempotent} through a {@link HedgedMethod} field per method: the
+ * wrapped body runs as the primary call and the same method of a backup delegate as the backup call. Both
+ * constructor parameters are required, so the decorator has no constructor taking only the delegate. The counters of
+ * every method are exposed by {@code hedgedMethods()}.
+ */
+final class HedgingBehaviour extends DecoratorBehaviour {
+  private static final ClassName HEDGED_METHOD = ClassName.get(HedgedMethod.class);
+
+  private final TypeName mainInterfaceTypeName;
+
+  HedgingBehaviour(TypeName mainInterfaceTypeName) {
+    this.mainInterfaceTypeName = mainInterfaceTypeName;
+  }
+
+  @Override
+  boolean appliesTo(InterfaceMethod method) {
+    return method.element.getAnnotation(Idempotent.class) != null;
+  }
+
+  @Override
+  List<ParameterSpec> getConstructorParameters() {
+    return Arrays.asList(ParameterSpec.builder(mainInterfaceTypeName, "backup").build(),
+            ParameterSpec.builder(HedgingPolicy.class, "policy").build());
+  }
+
+  @Override
+  List<CodeBlock> getDefaultArguments() {
+    return Arrays.asList(null, null);
+  }
+
+  @Override
+  void addMembers(TypeSpec.Builder decorator, MethodSpec.Builder constructor, List<InterfaceMethod> methods) {
+    decorator.addField(mainInterfaceTypeName, "backup", Modifier.PRIVATE, Modifier.FINAL);
+    constructor.addStatement("this.backup = backup");
+    CodeBlock.Builder hedgedMethods = CodeBlock.builder();
+    for (InterfaceMethod method : methods) {
+      decorator.addField(HEDGED_METHOD, getField(method), Modifier.PRIVATE, Modifier.FINAL);
+      constructor.addStatement("this.$N = new $T($S, policy)", getField(method), HEDGED_METHOD, method.signature());
+      hedgedMethods.add(hedgedMethods.isEmpty() ? "$N" : ", $N", getField(method));
+    }
+    decorator.addMethod(MethodSpec.methodBuilder("hedgedMethods")
+            .addJavadoc("Returns the hedging counters of every idempotent method, in the order of the interface.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(List.class, HedgedMethod.class))
+            .addStatement("return $T.asList($L)", Arrays.class, hedgedMethods.build())
+            .build());
+  }
+
+  @Override
+  Body wrap(InterfaceMethod method, Body body) {
+    CodeBlock backup = CodeBlock.of("this.backup.$N($L)", method.spec.name, method.arguments());
+    if (method.returnsVoid()) {
+      return target -> CodeBlock.builder()
+              .add("this.$N.run(() -> {\n$>", getField(method))
+              .add(body.create(null))
+              .add("$<}, () -> $L);\n", backup)
+              .build();
+    }
+    return target -> CodeBlock.builder()
+            .add(target == null ? CodeBlock.of("return ") : CodeBlock.of("$N = ", target))
+            .add("this.$N.call(() -> {\n$>", getField(method))
+            .add(body.create(null))
+            .add("$<}, () -> $L);\n", backup)
+            .build();
+  }
+
+  private String getField(InterfaceMethod method) {
+    return method.id + "Hedging";
+  }
+}
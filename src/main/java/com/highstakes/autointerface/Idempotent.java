@@ -0,0 +1,16 @@
+package com.highstakes.autointerface;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method that can be called twice with the same arguments without changing the outcome, so the hedging
+ * decorator generated with {@link AutoInterface#createHedgingDecorator()} may send a backup call to a second delegate
+ * while the first one is still running.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD})
+public @interface Idempotent {
+}
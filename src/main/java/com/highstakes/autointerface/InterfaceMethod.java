@@ -0,0 +1,84 @@
+package com.highstakes.autointerface;
+
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.ExecutableElement;
+
+/**
+ * A method of the main interface together with the element it was created from, which decorator behaviours read
+ * member annotations from. Every generated type of an annotated type is created from its list of these, which is
+ * built in a single walk over its members, so the strings derived from a method are built at most once.
+ */
+final class InterfaceMethod {
+  final ExecutableElement element;
+  final MethodSpec spec;
+  /**
+   * Name of the method, suffixed with its position among the overloads of the interface if it is overloaded. Used to
+   * name the fields a decorator keeps per method.
+   */
+  final String id;
+  private String arguments;
+  private String signature;
+
+  InterfaceMethod(ExecutableElement element, MethodSpec spec, String id) {
+    this.element = element;
+    this.spec = spec;
+    this.id = id;
+  }
+
+  boolean returnsVoid() {
+    return spec.returnType.equals(TypeName.VOID);
+  }
+
+  /**
+   * Returns the parameter names separated by commas, to pass the arguments of the method on to another call.
+   */
+  String arguments() {
+    if (arguments == null) {
+      StringBuilder builder = new StringBuilder();
+      for (ParameterSpec parameter : spec.parameters) {
+        if (builder.length() > 0) {
+          builder.append(", ");
+        }
+        builder.append(parameter.name);
+      }
+      arguments = builder.toString();
+    }
+    return arguments;
+  }
+
+  /**
+   * Returns the method name with its parameter types, like {@code find(java.lang.String, int)}.
+   */
+  String signature() {
+    if (signature == null) {
+      StringBuilder builder = new StringBuilder(spec.name).append('(');
+      for (int i = 0; i < spec.parameters.size(); i++) {
+        builder.append(i == 0 ? "" : ", ").append(spec.parameters.get(i).type);
+      }
+      signature = builder.append(')').toString();
+    }
+    return signature;
+  }
+
+  /**
+   * Returns a name for a local variable of a generated method body that does not shadow a parameter.
+   */
+  String local(String name) {
+    while (hasParameter(name)) {
+      name = name + "_";
+    }
+    return name;
+  }
+
+  private boolean hasParameter(String name) {
+    for (ParameterSpec parameter : spec.parameters) {
+      if (parameter.name.equals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
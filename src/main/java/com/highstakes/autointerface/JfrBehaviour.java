@@ -0,0 +1,134 @@
+package com.highstakes.autointerface;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Records every call as a JDK Flight Recorder event of a nested {@code CallEvent} class, named after the main
+ * interface. An event holds the method signature, the class of the exception thrown if any and the primitive
+ * arguments, in a field per parameter name that is shared by all methods with a parameter of that name and type.
+ * An event is only created and timed while its static {@code EventType} is enabled, which is false unless a recording
+ * enables it, and its fields are only set once {@code shouldCommit()} returns true, so while no recording is running
+ * a call costs one check and allocates nothing.
+ */
+final class JfrBehaviour extends DecoratorBehaviour {
+  private static final ClassName EVENT = ClassName.get("jdk.jfr", "Event");
+  private static final ClassName NAME = ClassName.get("jdk.jfr", "Name");
+  private static final ClassName LABEL = ClassName.get("jdk.jfr", "Label");
+  private static final ClassName CATEGORY = ClassName.get("jdk.jfr", "Category");
+  private static final ClassName STACK_TRACE = ClassName.get("jdk.jfr", "StackTrace");
+  private static final ClassName EVENT_TYPE = ClassName.get("jdk.jfr", "EventType");
+  private static final String EVENT_TYPE_FIELD = "CALL_EVENT_TYPE";
+  /**
+   * Fields of every event, including the ones JFR adds itself.
+   */
+  private static final List<String> RESERVED_FIELDS =
+          Arrays.asList("method", "exception", "startTime", "duration", "eventThread", "stackTrace");
+
+  private final ClassName eventClassName;
+  private final ClassName interfaceClassName;
+  private final Map<String, TypeName> argumentFields = new LinkedHashMap<>();
+  /**
+   * Field of every primitive parameter, by method ID and parameter name.
+   */
+  private final Map<String, String> parameterFields = new HashMap<>();
+
+  JfrBehaviour(ClassName eventClassName, TypeName mainInterfaceTypeName, List<InterfaceMethod> methods) {
+    this.eventClassName = eventClassName;
+    this.interfaceClassName = mainInterfaceTypeName instanceof ParameterizedTypeName
+            ? ((ParameterizedTypeName) mainInterfaceTypeName).rawType : (ClassName) mainInterfaceTypeName;
+    for (InterfaceMethod method : methods) {
+      for (ParameterSpec parameter : method.spec.parameters) {
+        if (!parameter.type.isPrimitive()) {
+          continue;
+        }
+        String field = parameter.name;
+        while (RESERVED_FIELDS.contains(field)
+                || argumentFields.containsKey(field) && !argumentFields.get(field).equals(parameter.type)) {
+          field = field + "_";
+        }
+        argumentFields.put(field, parameter.type);
+        parameterFields.put(method.id + " " + parameter.name, field);
+      }
+    }
+  }
+
+  @Override
+  void addMembers(TypeSpec.Builder decorator, MethodSpec.Builder constructor, List<InterfaceMethod> methods) {
+    TypeSpec.Builder event = TypeSpec.classBuilder(eventClassName)
+            .addModifiers(Modifier.STATIC, Modifier.FINAL)
+            .superclass(EVENT)
+            .addAnnotation(AnnotationSpec.builder(NAME)
+                    .addMember("value", "$S", interfaceClassName.canonicalName())
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(LABEL)
+                    .addMember("value", "$S", interfaceClassName.simpleName() + " Call")
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(CATEGORY)
+                    .addMember("value", "$S", "AutoInterface")
+                    .build())
+            .addAnnotation(AnnotationSpec.builder(STACK_TRACE)
+                    .addMember("value", "false")
+                    .build())
+            .addField(String.class, "method")
+            .addField(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)),
+                    "exception");
+    argumentFields.forEach((name, type) -> event.addField(type, name));
+    decorator.addType(event.build())
+            .addField(FieldSpec.builder(EVENT_TYPE, EVENT_TYPE_FIELD, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.getEventType($T.class)", EVENT_TYPE, eventClassName)
+                    .build());
+  }
+
+  @Override
+  Body wrap(InterfaceMethod method, Body body) {
+    String event = method.local("event");
+    String error = method.local("error");
+    CodeBlock.Builder fields = CodeBlock.builder()
+            .addStatement("$N.method = $S", event, method.signature());
+    for (ParameterSpec parameter : method.spec.parameters) {
+      String field = parameterFields.get(method.id + " " + parameter.name);
+      if (field != null) {
+        fields.addStatement("$N.$N = $N", event, field, parameter.name);
+      }
+    }
+    return target -> CodeBlock.builder()
+            .addStatement("$T $N = null", eventClassName, event)
+            .beginControlFlow("if ($N.isEnabled())", EVENT_TYPE_FIELD)
+            .addStatement("$N = new $T()", event, eventClassName)
+            .addStatement("$N.begin()", event)
+            .endControlFlow()
+            .beginControlFlow("try")
+            .add(body.create(target))
+            .nextControlFlow("catch ($T $N)", Throwable.class, error)
+            .beginControlFlow("if ($N != null)", event)
+            .addStatement("$N.exception = $N.getClass()", event, error)
+            .endControlFlow()
+            .addStatement("throw $N", error)
+            .nextControlFlow("finally")
+            .beginControlFlow("if ($N != null)", event)
+            .addStatement("$N.end()", event)
+            .beginControlFlow("if ($N.shouldCommit())", event)
+            .add(fields.build())
+            .addStatement("$N.commit()", event)
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+  }
+}
@@ -0,0 +1,73 @@
+package com.highstakes.autointerface;
+
+import com.highstakes.autointerface.runtime.MethodMetrics;
+import com.highstakes.autointerface.runtime.MetricsSnapshot;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Records call count, error count and latency of every method in a {@link MethodMetrics} field per method, exposed
+ * by {@code metricsSnapshot()}. Failed calls are rethrown as caught, which compiles for checked exceptions because
+ * the catch parameter is effectively final.
+ */
+final class MetricsBehaviour extends DecoratorBehaviour {
+  private static final ClassName METHOD_METRICS = ClassName.get(MethodMetrics.class);
+
+  @Override
+  List<ParameterSpec> getConstructorParameters() {
+    return Collections.singletonList(ParameterSpec.builder(TypeName.INT, "sampleRate").build());
+  }
+
+  @Override
+  List<CodeBlock> getDefaultArguments() {
+    return Collections.singletonList(CodeBlock.of("1"));
+  }
+
+  @Override
+  void addMembers(TypeSpec.Builder decorator, MethodSpec.Builder constructor, List<InterfaceMethod> methods) {
+    CodeBlock.Builder snapshots = CodeBlock.builder();
+    for (InterfaceMethod method : methods) {
+      decorator.addField(METHOD_METRICS, getField(method), Modifier.PRIVATE, Modifier.FINAL);
+      constructor.addStatement("this.$N = new $T($S, sampleRate)", getField(method), METHOD_METRICS,
+              method.signature());
+      snapshots.add(snapshots.isEmpty() ? "$N.snapshot()" : ", $N.snapshot()", getField(method));
+    }
+    decorator.addMethod(MethodSpec.methodBuilder("metricsSnapshot")
+            .addJavadoc("Returns the metrics of every method, in the order of the interface.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(List.class, MetricsSnapshot.class))
+            .addStatement("return $T.asList($L)", Arrays.class, snapshots.build())
+            .build());
+  }
+
+  @Override
+  Body wrap(InterfaceMethod method, Body body) {
+    String start = method.local("start");
+    String error = method.local("error");
+    return target -> CodeBlock.builder()
+            .addStatement("long $N = this.$N.start()", start, getField(method))
+            .beginControlFlow("try")
+            .add(body.create(target))
+            .nextControlFlow("catch ($T $N)", Throwable.class, error)
+            .addStatement("this.$N.error()", getField(method))
+            .addStatement("throw $N", error)
+            .nextControlFlow("finally")
+            .addStatement("this.$N.stop($N)", getField(method), start)
+            .endControlFlow()
+            .build();
+  }
+
+  private String getField(InterfaceMethod method) {
+    return method.id + "Metrics";
+  }
+}
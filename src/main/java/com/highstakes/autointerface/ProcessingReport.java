@@ -0,0 +1,176 @@
+package com.highstakes.autointerface;
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Collects processing metrics per annotated type for the {@code autointerface.report} option and writes them as CSV
+ * once processing is over. Every annotated type gets a {@code type} row, every round a {@code round} row with the
+ * totals of its types and the wall time of the round in {@code total_ns}. When the option is not set nothing is
+ * recorded and {@link #start()} does not read the clock.
+ */
+final class ProcessingReport {
+  static final ProcessingReport DISABLED = new ProcessingReport(null);
+
+  private static final String HEADER = "kind,round,type,total_ns,member_collection_ns,method_spec_ns,decorator_ns,"
+      + "render_ns,write_ns,members_before_dedup,members_after_dedup,files,bytes_written";
+
+  private final Path path;
+  private final Map<Element, Metrics> types = new LinkedHashMap<>();
+  private final List<String> rows = new ArrayList<>();
+  private int round;
+  private long roundStart;
+
+  ProcessingReport(Path path) {
+    this.path = path;
+  }
+
+  long start() {
+    return path != null ? System.nanoTime() : 0L;
+  }
+
+  void startRound() {
+    if (path != null) {
+      round++;
+      roundStart = System.nanoTime();
+    }
+  }
+
+  void memberCollection(TypeElement type, long start, int membersBeforeDedup, int membersAfterDedup) {
+    if (path != null) {
+      Metrics metrics = metrics(type);
+      metrics.memberCollectionNanos += System.nanoTime() - start;
+      metrics.membersBeforeDedup += membersBeforeDedup;
+      metrics.membersAfterDedup += membersAfterDedup;
+    }
+  }
+
+  void methodSpecs(TypeElement type, long start) {
+    if (path != null) {
+      metrics(type).methodSpecNanos += System.nanoTime() - start;
+    }
+  }
+
+  void decorator(TypeElement type, long start) {
+    if (path != null) {
+      metrics(type).decoratorNanos += System.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Called from the rendering threads when rendering in parallel.
+   */
+  void rendered(JavaFile javaFile, long start, String source) {
+    if (path != null) {
+      long nanos = System.nanoTime() - start;
+      int bytes = utf8Length(source);
+      synchronized (this) {
+        Metrics metrics = metrics(javaFile.typeSpec.originatingElements.get(0));
+        metrics.renderNanos += nanos;
+        metrics.files++;
+        metrics.bytesWritten += bytes;
+      }
+    }
+  }
+
+  void written(JavaFile javaFile, long start) {
+    if (path != null) {
+      metrics(javaFile.typeSpec.originatingElements.get(0)).writeNanos += System.nanoTime() - start;
+    }
+  }
+
+  void endRound() {
+    if (path == null) {
+      return;
+    }
+    Metrics total = new Metrics();
+    types.forEach((type, metrics) -> {
+      rows.add(row("type", ((TypeElement) type).getQualifiedName().toString(), metrics.total(), metrics));
+      total.add(metrics);
+    });
+    rows.add(row("round", "", System.nanoTime() - roundStart, total));
+    types.clear();
+  }
+
+  void write() throws IOException {
+    if (path == null) {
+      return;
+    }
+    List<String> lines = new ArrayList<>(rows.size() + 1);
+    lines.add(HEADER);
+    lines.addAll(rows);
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.write(path, lines, StandardCharsets.UTF_8);
+  }
+
+  private Metrics metrics(Element type) {
+    return types.computeIfAbsent(type, it -> new Metrics());
+  }
+
+  private String row(String kind, String type, long totalNanos, Metrics metrics) {
+    return kind + "," + round + "," + type + "," + totalNanos
+        + "," + metrics.memberCollectionNanos + "," + metrics.methodSpecNanos + "," + metrics.decoratorNanos
+        + "," + metrics.renderNanos + "," + metrics.writeNanos
+        + "," + metrics.membersBeforeDedup + "," + metrics.membersAfterDedup
+        + "," + metrics.files + "," + metrics.bytesWritten;
+  }
+
+  private static int utf8Length(String source) {
+    int length = 0;
+    for (int i = 0; i < source.length(); i++) {
+      char c = source.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  private static final class Metrics {
+    long memberCollectionNanos;
+    long methodSpecNanos;
+    long decoratorNanos;
+    long renderNanos;
+    long writeNanos;
+    int membersBeforeDedup;
+    int membersAfterDedup;
+    int files;
+    long bytesWritten;
+
+    long total() {
+      return memberCollectionNanos + methodSpecNanos + decoratorNanos + renderNanos + writeNanos;
+    }
+
+    void add(Metrics metrics) {
+      memberCollectionNanos += metrics.memberCollectionNanos;
+      methodSpecNanos += metrics.methodSpecNanos;
+      decoratorNanos += metrics.decoratorNanos;
+      renderNanos += metrics.renderNanos;
+      writeNanos += metrics.writeNanos;
+      membersBeforeDedup += metrics.membersBeforeDedup;
+      membersAfterDedup += metrics.membersAfterDedup;
+      files += metrics.files;
+      bytesWritten += metrics.bytesWritten;
+    }
+  }
+}
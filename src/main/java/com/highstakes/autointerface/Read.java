@@ -0,0 +1,31 @@
+package com.highstakes.autointerface;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Guard a method with the read lock in the concurrent decorator generated with
+ * {@link AutoInterface#createConcurrentDecorator()}, so it runs concurrently with other reads. Methods without
+ * {@code Read} or {@link Write} are reads if their name is or starts with {@code get}, {@code is}, {@code has},
+ * {@code contains} or {@code find}, like {@code get} or {@code getName} but not {@code getaway}, or is {@code size} or
+ * {@code count}.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD})
+public @interface Read {
+  /**
+   * Whether to call the method without a lock first and only take the read lock if a write happened meanwhile.
+   * Only for methods that cannot fail or hang when racing with a write, since the result of such a call is discarded
+   * but the call itself is not prevented. In a fused decorator the read lock is taken instead if a behaviour after
+   * the concurrent one applies to the method. Defaults to false.
+   */
+  boolean optimistic() default false;
+
+  /**
+   * Whether to lock only the stripe of the first argument. Only for delegates whose state for different first
+   * arguments is independent. Defaults to false.
+   */
+  boolean striped() default false;
+}
@@ -0,0 +1,17 @@
+package com.highstakes.autointerface;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Share one call of a method among the concurrent calls with equal arguments in the single-flight decorator
+ * generated with {@link AutoInterface#createSingleFlightDecorator()}. Arguments are compared with {@code equals}.
+ * Unlike {@link Cached}, nothing is kept once the shared call returned. The method must not be {@code void} or
+ * declare type variables.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD})
+public @interface SingleFlight {
+}
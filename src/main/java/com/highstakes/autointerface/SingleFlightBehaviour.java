@@ -0,0 +1,63 @@
+package com.highstakes.autointerface;
+
+import com.highstakes.autointerface.runtime.InFlightCalls;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Coalesces concurrent calls of methods annotated with {@link SingleFlight} through an {@link InFlightCalls} field
+ * per method, which runs the wrapped body once per distinct key. Methods with a single parameter are keyed by the
+ * argument itself, methods with more parameters by a list of their arguments.
+ */
+final class SingleFlightBehaviour extends DecoratorBehaviour {
+  private static final ClassName IN_FLIGHT_CALLS = ClassName.get(InFlightCalls.class);
+
+  @Override
+  boolean appliesTo(InterfaceMethod method) {
+    return method.element.getAnnotation(SingleFlight.class) != null
+            && !method.returnsVoid()
+            && method.spec.typeVariables.isEmpty();
+  }
+
+  @Override
+  void addMembers(TypeSpec.Builder decorator, MethodSpec.Builder constructor, List<InterfaceMethod> methods) {
+    for (InterfaceMethod method : methods) {
+      decorator.addField(ParameterizedTypeName.get(IN_FLIGHT_CALLS, method.spec.returnType.box()), getField(method),
+              Modifier.PRIVATE, Modifier.FINAL);
+      constructor.addStatement("this.$N = new $T<>()", getField(method), IN_FLIGHT_CALLS);
+    }
+  }
+
+  @Override
+  Body wrap(InterfaceMethod method, Body body) {
+    CodeBlock key = getKey(method);
+    return target -> result(target, CodeBlock.builder()
+            .add("this.$N.execute($L, () -> {\n$>", getField(method), key)
+            .add(body.create(null))
+            .add("$<})")
+            .build());
+  }
+
+  private CodeBlock getKey(InterfaceMethod method) {
+    List<ParameterSpec> parameters = method.spec.parameters;
+    if (parameters.isEmpty()) {
+      return CodeBlock.of("null");
+    }
+    if (parameters.size() == 1) {
+      return CodeBlock.of("$N", parameters.get(0));
+    }
+    return CodeBlock.of("$T.<$T>asList($L)", Arrays.class, Object.class, method.arguments());
+  }
+
+  private String getField(InterfaceMethod method) {
+    return method.id + "Flight";
+  }
+}
@@ -0,0 +1,103 @@
+package com.highstakes.autointerface;
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Renders generated files and writes them to the {@link Filer}. Rendering only reads the already built JavaPoet
+ * specs, so with a parallelism above one it runs on a fork-join pool, while the Filer is only used from the
+ * processing thread. Both modes write the same text {@link JavaFile#writeTo(Filer)} would. A file that fails to
+ * render is reported as an error on the element it originates from, also on the processing thread.
+ */
+final class SourceFileWriter {
+  private final Filer filer;
+  private final Messager messager;
+  private final int parallelism;
+  private final ProcessingReport report;
+
+  SourceFileWriter(Filer filer, Messager messager, int parallelism, ProcessingReport report) {
+    this.filer = filer;
+    this.messager = messager;
+    this.parallelism = parallelism;
+    this.report = report;
+  }
+
+  /**
+   * Returns the source of every file, {@code null} for the files that failed to render and were reported.
+   */
+  List<String> render(List<JavaFile> javaFiles) throws IOException {
+    String[] sources = new String[javaFiles.size()];
+    RuntimeException[] failures = new RuntimeException[javaFiles.size()];
+    IntConsumer render = i -> {
+      try {
+        sources[i] = render(javaFiles.get(i));
+      } catch (RuntimeException e) {
+        failures[i] = e;
+      }
+    };
+    if (parallelism <= 1 || javaFiles.size() <= 1) {
+      for (int i = 0; i < javaFiles.size(); i++) {
+        render.accept(i);
+      }
+    } else {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+        pool.submit(() -> IntStream.range(0, javaFiles.size()).parallel().forEach(render)).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while rendering generated files", e);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to render generated files: " + e.getCause(), e.getCause());
+      } finally {
+        pool.shutdown();
+      }
+    }
+    for (int i = 0; i < failures.length; i++) {
+      if (failures[i] != null) {
+        List<Element> originatingElements = javaFiles.get(i).typeSpec.originatingElements;
+        messager.printMessage(Diagnostic.Kind.ERROR,
+            "AutoInterface: Error rendering " + getFileName(javaFiles.get(i)) + ": " + failures[i],
+            originatingElements.isEmpty() ? null : originatingElements.get(0));
+      }
+    }
+    return Arrays.asList(sources);
+  }
+
+  private String render(JavaFile javaFile) {
+    long start = report.start();
+    String source = javaFile.toString();
+    report.rendered(javaFile, start, source);
+    return source;
+  }
+
+  void write(JavaFile javaFile, String source) throws IOException {
+    List<Element> originatingElements = javaFile.typeSpec.originatingElements;
+    JavaFileObject sourceFile = filer.createSourceFile(getFileName(javaFile),
+        originatingElements.toArray(new Element[originatingElements.size()]));
+    try (Writer writer = sourceFile.openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      sourceFile.delete();
+      throw e;
+    }
+  }
+
+  private static String getFileName(JavaFile javaFile) {
+    return javaFile.packageName.isEmpty()
+        ? javaFile.typeSpec.name
+        : javaFile.packageName + "." + javaFile.typeSpec.name;
+  }
+}
@@ -0,0 +1,134 @@
+package com.highstakes.autointerface;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Primitive types substituted for type variables of an annotated type, requested like {@code "K=long"} with
+ * {@link AutoInterface#specialize()}. Only parameters and return types that are exactly a specialized type variable
+ * become primitive. Anywhere else, such as in type arguments, arrays and bounds, the type variable becomes the
+ * wrapper class, so the adapter to the generic interface can pass every argument and result on as it is.
+ */
+final class Specialization {
+  /**
+   * The capitalized primitive names in the order requested, like {@code LongDouble}, which the names of the
+   * specialized types add to the name of the annotated type.
+   */
+  final String name;
+  /**
+   * Primitive types by the name of the type variable they replace.
+   */
+  private final Map<String, TypeName> primitives;
+
+  Specialization(String name, Map<String, TypeName> primitives) {
+    this.name = name;
+    this.primitives = primitives;
+  }
+
+  /**
+   * Returns the type variables that are not specialized, with the specialized ones in their bounds replaced by
+   * wrappers.
+   */
+  List<TypeVariableName> getTypeVariables(Iterable<TypeVariableName> typeVariables) {
+    List<TypeVariableName> remaining = new ArrayList<>();
+    for (TypeVariableName typeVariable : typeVariables) {
+      if (!primitives.containsKey(typeVariable.name)) {
+        remaining.add(substituteBounds(typeVariable, new HashSet<>()));
+      }
+    }
+    return remaining;
+  }
+
+  /**
+   * Returns the type arguments of the generic interface implemented by the adapter, the wrapper for every specialized
+   * type variable and the type variable itself for every other one.
+   */
+  TypeName[] getTypeArguments(Iterable<TypeVariableName> typeVariables) {
+    List<TypeName> typeArguments = new ArrayList<>();
+    for (TypeVariableName typeVariable : typeVariables) {
+      TypeName primitive = primitives.get(typeVariable.name);
+      typeArguments.add(primitive != null ? primitive.box() : typeVariable);
+    }
+    return typeArguments.toArray(new TypeName[0]);
+  }
+
+  /**
+   * Returns the method with the specialized type variables replaced, by primitives where allowed if
+   * {@code primitive} is set and by wrappers otherwise. Type variables of the method shadow those of the type.
+   */
+  MethodSpec specialize(MethodSpec method, boolean primitive) {
+    Set<String> shadowed = new HashSet<>();
+    for (TypeVariableName typeVariable : method.typeVariables) {
+      shadowed.add(typeVariable.name);
+    }
+    MethodSpec.Builder specialized = MethodSpec.methodBuilder(method.name)
+            .addModifiers(method.modifiers)
+            .returns(substitute(method.returnType, primitive, shadowed))
+            .addExceptions(method.exceptions)
+            .varargs(method.varargs);
+    for (TypeVariableName typeVariable : method.typeVariables) {
+      specialized.addTypeVariable(substituteBounds(typeVariable, shadowed));
+    }
+    for (ParameterSpec parameter : method.parameters) {
+      specialized.addParameter(ParameterSpec.builder(substitute(parameter.type, primitive, shadowed), parameter.name)
+              .addModifiers(parameter.modifiers.toArray(new Modifier[0]))
+              .build());
+    }
+    return specialized.build();
+  }
+
+  private TypeVariableName substituteBounds(TypeVariableName typeVariable, Set<String> shadowed) {
+    TypeName[] bounds = new TypeName[typeVariable.bounds.size()];
+    for (int i = 0; i < bounds.length; i++) {
+      bounds[i] = substitute(typeVariable.bounds.get(i), false, shadowed);
+    }
+    return TypeVariableName.get(typeVariable.name, bounds);
+  }
+
+  private TypeName substitute(TypeName type, boolean primitive, Set<String> shadowed) {
+    if (type instanceof TypeVariableName) {
+      String typeVariable = ((TypeVariableName) type).name;
+      TypeName replacement = shadowed.contains(typeVariable) ? null : primitives.get(typeVariable);
+      return replacement == null ? type : primitive ? replacement : replacement.box();
+    }
+    if (type instanceof ArrayTypeName) {
+      TypeName componentType = ((ArrayTypeName) type).componentType;
+      TypeName substituted = substitute(componentType, false, shadowed);
+      return substituted != componentType ? ArrayTypeName.of(substituted) : type;
+    }
+    if (type instanceof ParameterizedTypeName) {
+      ParameterizedTypeName parameterizedType = (ParameterizedTypeName) type;
+      TypeName[] typeArguments = new TypeName[parameterizedType.typeArguments.size()];
+      boolean substituted = false;
+      for (int i = 0; i < typeArguments.length; i++) {
+        typeArguments[i] = substitute(parameterizedType.typeArguments.get(i), false, shadowed);
+        substituted |= typeArguments[i] != parameterizedType.typeArguments.get(i);
+      }
+      // Rebuilding drops the type arguments of an enclosing type, so types without specialized variables are kept
+      return substituted ? ParameterizedTypeName.get(parameterizedType.rawType, typeArguments) : type;
+    }
+    if (type instanceof WildcardTypeName) {
+      WildcardTypeName wildcardType = (WildcardTypeName) type;
+      boolean lower = !wildcardType.lowerBounds.isEmpty();
+      TypeName bound = lower ? wildcardType.lowerBounds.get(0) : wildcardType.upperBounds.get(0);
+      TypeName substituted = substitute(bound, false, shadowed);
+      if (substituted == bound) {
+        return type;
+      }
+      return lower ? WildcardTypeName.supertypeOf(substituted) : WildcardTypeName.subtypeOf(substituted);
+    }
+    return type;
+  }
+}
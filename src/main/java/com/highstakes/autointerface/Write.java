@@ -0,0 +1,20 @@
+package com.highstakes.autointerface;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Guard a method with the write lock in the concurrent decorator generated with
+ * {@link AutoInterface#createConcurrentDecorator()}. Methods that are not {@link Read reads} are writes.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.METHOD})
+public @interface Write {
+  /**
+   * Whether to lock only the stripe of the first argument. Only for delegates whose state for different first
+   * arguments is independent. Defaults to false.
+   */
+  boolean striped() default false;
+}
@@ -0,0 +1,90 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the calls of generated async adapters on an executor. A call that throws completes its future exceptionally
+ * with the thrown exception itself, checked or not, so {@link CompletableFuture#get()} reports it as the cause of
+ * its {@code ExecutionException}.
+ */
+public final class AsyncCalls {
+
+  private AsyncCalls() {
+  }
+
+  public interface Call<R> {
+    R call() throws Throwable;
+  }
+
+  public interface VoidCall {
+    void run() throws Throwable;
+  }
+
+  public static <R> CompletableFuture<R> call(Executor executor, Call<R> call) {
+    CompletableFuture<R> future = new CompletableFuture<>();
+    execute(executor, future, () -> {
+      try {
+        future.complete(call.call());
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
+  public static CompletableFuture<Void> run(Executor executor, VoidCall call) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    execute(executor, future, () -> {
+      try {
+        call.run();
+        future.complete(null);
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
+  private static void execute(Executor executor, CompletableFuture<?> future, Runnable task) {
+    try {
+      executor.execute(task);
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Returns the executor used by adapters created without one: a virtual thread per task executor on JDK 21 and
+   * newer, otherwise a shared pool of daemon threads, which grows with the number of blocked calls.
+   */
+  public static Executor defaultExecutor() {
+    return DefaultExecutor.INSTANCE;
+  }
+
+  private static final class DefaultExecutor {
+    static final Executor INSTANCE = create();
+
+    private static Executor create() {
+      try {
+        return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+        return Executors.newCachedThreadPool(new DaemonThreadFactory());
+      }
+    }
+  }
+
+  private static final class DaemonThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "autointerface-async-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
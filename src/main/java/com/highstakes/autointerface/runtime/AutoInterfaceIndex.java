@@ -0,0 +1,169 @@
+package com.highstakes.autointerface.runtime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bindings of generated interfaces to the annotated classes implementing them, read from the {@value #RESOURCE}
+ * resources the processor writes with {@code -Aautointerface.index=true}. Every module and jar on the class path
+ * has its own resource, and all of them are merged, so bindings are resolved by a map lookup instead of a class path
+ * scan.
+ *
+ * <p>Every line of a resource holds the binary names of a generated interface, its annotated class and the other
+ * types generated for that class, separated by spaces. Blank lines and lines starting with {@code #} are ignored.
+ */
+public final class AutoInterfaceIndex {
+  public static final String RESOURCE = "META-INF/autointerface/index";
+  /**
+   * First line of every resource, naming the version of the format.
+   */
+  public static final String HEADER = "# AutoInterface index 1";
+
+  private final ClassLoader classLoader;
+  private final Map<String, Binding> byInterface = new HashMap<>();
+  private final Map<String, Binding> byImplementation = new HashMap<>();
+
+  private AutoInterfaceIndex(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Reads the index resources visible to the context class loader of the current thread, or to the class loader of
+   * this class if there is none.
+   */
+  public static AutoInterfaceIndex load() {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    return load(classLoader != null ? classLoader : AutoInterfaceIndex.class.getClassLoader());
+  }
+
+  /**
+   * Reads the index resources visible to the class loader.
+   *
+   * @throws IllegalStateException if two resources bind an interface or a class differently
+   */
+  public static AutoInterfaceIndex load(ClassLoader classLoader) {
+    AutoInterfaceIndex index = new AutoInterfaceIndex(classLoader);
+    try {
+      Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+      while (resources.hasMoreElements()) {
+        index.read(resources.nextElement());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read " + RESOURCE, e);
+    }
+    return index;
+  }
+
+  private void read(URL resource) throws IOException {
+    URLConnection connection = resource.openConnection();
+    // Jar files are cached by the JDK unless asked not to, which would keep them open
+    connection.setUseCaches(false);
+    try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] names = line.split(" +");
+        if (names.length < 2) {
+          throw new IllegalStateException("Malformed line in " + resource + ": " + line);
+        }
+        add(new Binding(names[0], names[1], Arrays.asList(names).subList(2, names.length)));
+      }
+    }
+  }
+
+  private void add(Binding binding) {
+    Binding byInterfaceName = byInterface.putIfAbsent(binding.interfaceName, binding);
+    Binding byImplementationName = byImplementation.putIfAbsent(binding.implementationName, binding);
+    if (byInterfaceName != null && !byInterfaceName.bindsSame(binding)) {
+      throw new IllegalStateException(binding.interfaceName + " is bound to both "
+              + byInterfaceName.implementationName + " and " + binding.implementationName);
+    }
+    if (byImplementationName != null && !byImplementationName.bindsSame(binding)) {
+      throw new IllegalStateException(binding.implementationName + " is bound to both "
+              + byImplementationName.interfaceName + " and " + binding.interfaceName);
+    }
+  }
+
+  /**
+   * Returns the binary name of the annotated class the interface was generated from, or {@code null} if the
+   * interface is not indexed.
+   */
+  public String implementationOf(String interfaceName) {
+    Binding binding = byInterface.get(interfaceName);
+    return binding != null ? binding.implementationName : null;
+  }
+
+  /**
+   * Loads the annotated class the interface was generated from, without initializing it, or returns {@code null} if
+   * the interface is not indexed.
+   *
+   * @throws IllegalStateException if the class is indexed but cannot be loaded
+   */
+  public <T> Class<? extends T> implementationOf(Class<T> type) {
+    String implementationName = implementationOf(type.getName());
+    if (implementationName == null) {
+      return null;
+    }
+    try {
+      return Class.forName(implementationName, false, classLoader).asSubclass(type);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Indexed class " + implementationName + " cannot be loaded", e);
+    }
+  }
+
+  /**
+   * Returns the binary name of the interface generated from the annotated class, or {@code null} if the class is not
+   * indexed.
+   */
+  public String interfaceOf(String implementationName) {
+    Binding binding = byImplementation.get(implementationName);
+    return binding != null ? binding.interfaceName : null;
+  }
+
+  /**
+   * Returns the binary names of the decorators, proxies and async types generated from the annotated class, empty if
+   * the class is not indexed.
+   */
+  public List<String> generatedTypesOf(String implementationName) {
+    Binding binding = byImplementation.get(implementationName);
+    return binding != null ? binding.generatedTypes : Collections.emptyList();
+  }
+
+  /**
+   * Returns the binary names of every indexed interface.
+   */
+  public Set<String> interfaces() {
+    return Collections.unmodifiableSet(byInterface.keySet());
+  }
+
+  private static final class Binding {
+    final String interfaceName;
+    final String implementationName;
+    final List<String> generatedTypes;
+
+    Binding(String interfaceName, String implementationName, List<String> generatedTypes) {
+      this.interfaceName = interfaceName;
+      this.implementationName = implementationName;
+      this.generatedTypes = Collections.unmodifiableList(generatedTypes);
+    }
+
+    boolean bindsSame(Binding other) {
+      return interfaceName.equals(other.interfaceName) && implementationName.equals(other.implementationName);
+    }
+  }
+}
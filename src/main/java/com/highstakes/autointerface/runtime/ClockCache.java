@@ -0,0 +1,135 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded memoization cache of generated caching decorators. Entries live in a set-associative table of
+ * {@value #WAYS} entries per set: the hash of a key selects a set, and a full set evicts with the CLOCK algorithm,
+ * giving entries read since the hand last passed them a second chance. Reads are lock-free and allocation free,
+ * writes lock their set. Entries optionally expire a fixed time after they were written.
+ *
+ * <p>{@code null} marks a miss, so {@code null} values are not cached.
+ */
+public abstract class ClockCache<V> {
+  static final int WAYS = 8;
+  private static final int MAX_SETS = 1 << 24;
+  private static final int MAX_LOCKS = 64;
+
+  private final AtomicReferenceArray<Entry<V>> entries;
+  private final byte[] hands;
+  private final Object[] locks;
+  private final int setMask;
+  private final long expireAfterWriteNanos;
+
+  /**
+   * @param maximumSize number of entries, rounded up to a power of two multiple of {@value #WAYS}
+   * @param expireAfterWriteMillis time after which an entry is no longer returned, 0 to keep entries until evicted
+   */
+  ClockCache(int maximumSize, long expireAfterWriteMillis) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive, was " + maximumSize);
+    }
+    if (expireAfterWriteMillis < 0) {
+      throw new IllegalArgumentException("expireAfterWriteMillis must not be negative, was " + expireAfterWriteMillis);
+    }
+    int sets = 1;
+    while (sets < MAX_SETS && (long) sets * WAYS < maximumSize) {
+      sets <<= 1;
+    }
+    this.entries = new AtomicReferenceArray<>(sets * WAYS);
+    this.hands = new byte[sets];
+    this.locks = new Object[Math.min(sets, MAX_LOCKS)];
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+    this.setMask = sets - 1;
+    this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterWriteMillis);
+  }
+
+  abstract static class Entry<V> {
+    final int hash;
+    final V value;
+    final long expiresAt;
+    volatile boolean referenced;
+
+    Entry(int hash, V value, long expiresAt) {
+      this.hash = hash;
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+
+    abstract boolean sameKey(Entry<V> other);
+  }
+
+  /**
+   * Returns the number of entries the cache holds at most.
+   */
+  public final int capacity() {
+    return entries.length();
+  }
+
+  final int firstSlot(int hash) {
+    return (hash & setMask) * WAYS;
+  }
+
+  final Entry<V> entry(int slot) {
+    return entries.get(slot);
+  }
+
+  /**
+   * Returns the value of an entry found by a read and marks it as recently used, or {@code null} if it expired.
+   */
+  final V read(Entry<V> entry) {
+    if (isExpired(entry)) {
+      return null;
+    }
+    if (!entry.referenced) {
+      entry.referenced = true;
+    }
+    return entry.value;
+  }
+
+  final long expiresAt() {
+    return expireAfterWriteNanos == 0 ? 0 : System.nanoTime() + expireAfterWriteNanos;
+  }
+
+  /**
+   * Stores the entry in the slot of the entry with the same key, in an empty slot of its set or in place of the
+   * entry picked by the clock hand of the set.
+   */
+  final void insert(Entry<V> entry) {
+    int set = entry.hash & setMask;
+    int first = set * WAYS;
+    synchronized (locks[set & (locks.length - 1)]) {
+      for (int way = 0; way < WAYS; way++) {
+        // Entries are replaced but never removed, so the first empty slot ends the set
+        Entry<V> existing = entries.get(first + way);
+        if (existing == null || entry.sameKey(existing)) {
+          entries.set(first + way, entry);
+          return;
+        }
+      }
+      entries.set(first + evict(set, first), entry);
+    }
+  }
+
+  private int evict(int set, int first) {
+    int hand = hands[set];
+    // Readers may mark entries again while the hand moves, so give up on second chances after two rounds
+    for (int i = 0; i < 2 * WAYS; i++) {
+      Entry<V> candidate = entries.get(first + hand);
+      if (!candidate.referenced || isExpired(candidate)) {
+        break;
+      }
+      candidate.referenced = false;
+      hand = (hand + 1) & (WAYS - 1);
+    }
+    hands[set] = (byte) ((hand + 1) & (WAYS - 1));
+    return hand;
+  }
+
+  private boolean isExpired(Entry<V> entry) {
+    return expireAfterWriteNanos != 0 && System.nanoTime() - entry.expiresAt > 0;
+  }
+}
@@ -0,0 +1,80 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A delegate of a generated swappable decorator that counts the calls running on it. Once it is swapped out and
+ * retired, the drain callback is called with the delegate as soon as no call is running on it any more, on the thread
+ * that finished the last call or on the swapping thread if none was running. The callback should not throw, since
+ * it runs in the {@code finally} block of that last call.
+ *
+ * <p>A call that enters the delegate after it was retired backs out, and the decorator enters its new delegate
+ * instead, so no call starts on a delegate that was reported as drained.
+ */
+public final class DrainableDelegate<T> {
+  private final T delegate;
+  private final Consumer<? super T> drained;
+  private final LongAdder entered = new LongAdder();
+  private final LongAdder exited = new LongAdder();
+  private final AtomicBoolean reported = new AtomicBoolean();
+  private volatile boolean retired;
+
+  public DrainableDelegate(T delegate, Consumer<? super T> drained) {
+    this.delegate = delegate;
+    this.drained = drained;
+  }
+
+  public T get() {
+    return delegate;
+  }
+
+  /**
+   * Starts a call, returns {@code false} if the delegate was retired, in which case the call must not use it.
+   */
+  public boolean enter() {
+    entered.increment();
+    if (retired) {
+      exit();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Finishes a call started by {@link #enter()}.
+   */
+  public void exit() {
+    exited.increment();
+    if (retired) {
+      reportIfDrained();
+    }
+  }
+
+  /**
+   * Called once the delegate was swapped out.
+   */
+  public void retire() {
+    retired = true;
+    reportIfDrained();
+  }
+
+  /**
+   * Returns the number of calls running on the delegate.
+   */
+  public long running() {
+    long exits = exited.sum();
+    return entered.sum() - exits;
+  }
+
+  /**
+   * Reads the exits before the entries, so a call counted as exited is always counted as entered as well and the
+   * delegate is never reported while a call runs on it.
+   */
+  private void reportIfDrained() {
+    if (running() == 0 && reported.compareAndSet(false, true)) {
+      drained.accept(delegate);
+    }
+  }
+}
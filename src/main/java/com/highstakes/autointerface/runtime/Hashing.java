@@ -0,0 +1,23 @@
+package com.highstakes.autointerface.runtime;
+
+/**
+ * Hash functions spreading keys over power of two tables.
+ */
+final class Hashing {
+
+  private Hashing() {
+  }
+
+  static int hash(Object key) {
+    return key == null ? 0 : spread(key.hashCode());
+  }
+
+  static int hash(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+  }
+
+  static int spread(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,306 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedges the calls of one method of a generated hedging decorator. A call runs the primary call on the caller's
+ * thread, so calls that complete within the hedging delay cost no thread hop, and schedules the backup call on the
+ * executor of the {@link HedgingPolicy} after the delay. If the backup call succeeds first, the caller's thread is
+ * interrupted to stop the primary call and its result is returned once the primary call returned or threw; if the
+ * primary call succeeds first, the backup call is cancelled by interrupting it. If the primary call fails before the
+ * backup call was started, the backup call runs on the caller's thread right away. A call fails only once both calls
+ * failed, with the exception of the first one that failed, rethrown as is even if it is checked, which is safe
+ * because the generated methods declare the exceptions of their delegates.
+ */
+public final class HedgedMethod {
+  /**
+   * Number of calls after which a percentile delay is recalculated from the latencies recorded so far.
+   */
+  public static final int UPDATE_INTERVAL = 64;
+
+  private static final int RUNNING = 0;
+  private static final int PRIMARY = 1;
+  private static final int PRIMARY_FAILED = 2;
+  private static final int INTERRUPTING = 3;
+  private static final int BACKUP = 4;
+  private static final Object CLOSED = new Object();
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<Race, Object> BACKUP_TASK =
+      AtomicReferenceFieldUpdater.newUpdater(Race.class, Object.class, "backupTask");
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<Race, Throwable> ERROR =
+      AtomicReferenceFieldUpdater.newUpdater(Race.class, Throwable.class, "error");
+
+  private final String method;
+  private final HedgingPolicy policy;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder hedges = new LongAdder();
+  private final LongAdder hedgeWins = new LongAdder();
+  private final LatencyHistogram latencies;
+  private final AtomicLong recorded = new AtomicLong();
+  private volatile long delayNanos;
+
+  public HedgedMethod(String method, HedgingPolicy policy) {
+    this.method = method;
+    this.policy = policy;
+    this.latencies = policy.isAdaptive() ? new LatencyHistogram() : null;
+    this.delayNanos = policy.delayNanos();
+  }
+
+  public interface Call<R> {
+    R call() throws Throwable;
+  }
+
+  public interface VoidCall {
+    void run() throws Throwable;
+  }
+
+  public <R> R call(Call<R> primary, Call<R> backup) {
+    calls.increment();
+    long start = System.nanoTime();
+    Race<R> race = new Race<>(backup, Thread.currentThread());
+    long delay = delayNanos;
+    Future<?> scheduled = null;
+    if (delay == 0) {
+      race.run();
+    } else {
+      scheduled = Scheduler.INSTANCE.schedule(race, delay, TimeUnit.NANOSECONDS);
+    }
+    try {
+      R value;
+      try {
+        value = primary.call();
+      } catch (Throwable e) {
+        return race.primaryFailed(e);
+      }
+      if (race.compareAndSet(RUNNING, PRIMARY)) {
+        return value;
+      }
+      return race.backupResult();
+    } finally {
+      if (scheduled != null) {
+        scheduled.cancel(false);
+      }
+      race.finish();
+      record(System.nanoTime() - start);
+    }
+  }
+
+  public void run(VoidCall primary, VoidCall backup) {
+    call(() -> {
+      primary.run();
+      return null;
+    }, () -> {
+      backup.run();
+      return null;
+    });
+  }
+
+  /**
+   * Records the latency of a call as seen by the caller, which for hedged calls won by the backup is a lower bound
+   * of the latency of the primary call.
+   */
+  private void record(long nanos) {
+    if (latencies == null) {
+      return;
+    }
+    latencies.record(nanos);
+    long count = recorded.incrementAndGet();
+    if (count % UPDATE_INTERVAL == 0) {
+      delayNanos = LatencyHistogram.percentileNanos(latencies.bucketCounts(), count, latencies.maxNanos(),
+          policy.percentile());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> E rethrow(Throwable error) throws E {
+    throw (E) error;
+  }
+
+  /**
+   * Returns the method name with its parameter types, like {@code find(java.lang.String, int)}.
+   */
+  public String method() {
+    return method;
+  }
+
+  public long calls() {
+    return calls.sum();
+  }
+
+  /**
+   * Returns the number of calls a backup call was started for.
+   */
+  public long hedges() {
+    return hedges.sum();
+  }
+
+  /**
+   * Returns the number of calls the backup call returned the result of.
+   */
+  public long hedgeWins() {
+    return hedgeWins.sum();
+  }
+
+  /**
+   * Returns the current hedging delay.
+   */
+  public long delayNanos() {
+    return delayNanos;
+  }
+
+  @Override
+  public String toString() {
+    return method + "{calls=" + calls() + ", hedges=" + hedges() + ", hedgeWins=" + hedgeWins() + ", delay="
+        + delayNanos + "ns}";
+  }
+
+  /**
+   * The backup call of one call of the method, racing the primary call running on the caller's thread. The state is
+   * the value of the {@link AtomicInteger} this extends, and running it starts the backup call, so a call that
+   * completes within the delay allocates nothing else.
+   */
+  @SuppressWarnings("serial")
+  private final class Race<R> extends AtomicInteger implements Runnable {
+    final Call<R> backup;
+    final Thread caller;
+    /**
+     * The task running the backup call, {@link #CLOSED} once the call finished without starting it, updated through
+     * {@link #BACKUP_TASK}.
+     */
+    volatile Object backupTask;
+    /**
+     * The error of the call that failed first, updated through {@link #ERROR}.
+     */
+    volatile Throwable error;
+
+    Race(Call<R> backup, Thread caller) {
+      super(RUNNING);
+      this.backup = backup;
+      this.caller = caller;
+    }
+
+    /**
+     * Starts the backup call on the executor, unless the call already finished or the backup call was started.
+     */
+    @Override
+    public void run() {
+      if (get() != RUNNING || backupTask != null) {
+        return;
+      }
+      FutureTask<R> task = new FutureTask<>(this::callBackup);
+      if (!BACKUP_TASK.compareAndSet(this, null, task)) {
+        return;
+      }
+      hedges.increment();
+      try {
+        policy.executor().execute(task);
+      } catch (RuntimeException e) {
+        ERROR.compareAndSet(this, null, e);
+        task.cancel(false);
+      }
+    }
+
+    /**
+     * Calls the backup. If it succeeds while the primary call is still running, the caller's thread is interrupted;
+     * {@link #INTERRUPTING} tells the caller to wait for that interrupt, so it can clear it.
+     */
+    private R callBackup() throws Exception {
+      R value;
+      try {
+        value = backup.call();
+      } catch (Throwable e) {
+        ERROR.compareAndSet(this, null, e);
+        throw HedgedMethod.<Exception>rethrow(e);
+      }
+      if (compareAndSet(RUNNING, INTERRUPTING)) {
+        caller.interrupt();
+        set(BACKUP);
+      }
+      return value;
+    }
+
+    /**
+     * Returns the result of the backup call after the primary call failed, running the backup call on the caller's
+     * thread if it was not started yet.
+     */
+    @SuppressWarnings("unchecked")
+    R primaryFailed(Throwable e) {
+      if (!compareAndSet(RUNNING, PRIMARY_FAILED)) {
+        return backupResult();
+      }
+      ERROR.compareAndSet(this, null, e);
+      FutureTask<R> inline = new FutureTask<>(this::callBackup);
+      if (BACKUP_TASK.compareAndSet(this, null, inline)) {
+        hedges.increment();
+        inline.run();
+      }
+      try {
+        R value = ((FutureTask<R>) backupTask).get();
+        hedgeWins.increment();
+        return value;
+      } catch (ExecutionException | CancellationException backupError) {
+        throw HedgedMethod.<RuntimeException>rethrow(error);
+      } catch (InterruptedException interrupted) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Interrupted while waiting for " + method);
+      }
+    }
+
+    /**
+     * Returns the result of the backup call, which succeeded while the primary call was running, after clearing the
+     * interrupt it sent to stop the primary call.
+     */
+    @SuppressWarnings("unchecked")
+    R backupResult() {
+      while (get() == INTERRUPTING) {
+        Thread.yield();
+      }
+      Thread.interrupted();
+      hedgeWins.increment();
+      try {
+        return ((FutureTask<R>) backupTask).get();
+      } catch (ExecutionException | InterruptedException e) {
+        throw new AssertionError("Backup call of " + method + " succeeded", e);
+      }
+    }
+
+    /**
+     * Cancels the backup call unless it succeeded, or prevents it from starting.
+     */
+    void finish() {
+      Object task = BACKUP_TASK.getAndSet(this, CLOSED);
+      if (task instanceof Future && get() != BACKUP) {
+        ((Future<?>) task).cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Starts the backup calls of every hedged method after their delay on a single daemon thread, which hands them to
+   * the executor of their policy. Cancelled starts are removed right away, so calls completing within a long delay
+   * leave nothing behind.
+   */
+  private static final class Scheduler {
+    static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+    private static ScheduledThreadPoolExecutor create() {
+      ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "autointerface-hedging");
+        thread.setDaemon(true);
+        return thread;
+      });
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When a {@link HedgedMethod} sends a backup call, and the executor backup calls run on. The delay is either fixed
+ * or a percentile of the latencies of the method's calls so far, such as the p95, so that only the slowest calls
+ * are hedged.
+ */
+public final class HedgingPolicy {
+  private final long delayNanos;
+  private final boolean adaptive;
+  private final double percentile;
+  private final Executor executor;
+
+  private HedgingPolicy(long delayNanos, boolean adaptive, double percentile, Executor executor) {
+    if (delayNanos < 0) {
+      throw new IllegalArgumentException("Delay must not be negative: " + delayNanos);
+    }
+    if (percentile <= 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be in (0, 100]: " + percentile);
+    }
+    this.delayNanos = delayNanos;
+    this.adaptive = adaptive;
+    this.percentile = percentile;
+    this.executor = executor;
+  }
+
+  /**
+   * Sends a backup call after the same delay for every call.
+   */
+  public static HedgingPolicy fixedDelay(long delay, TimeUnit unit) {
+    return new HedgingPolicy(unit.toNanos(delay), false, 100, AsyncCalls.defaultExecutor());
+  }
+
+  /**
+   * Sends a backup call once a call takes longer than the given percentage of the method's calls so far, or the
+   * initial delay until {@value HedgedMethod#UPDATE_INTERVAL} calls completed.
+   */
+  public static HedgingPolicy percentile(double percentile, long initialDelay, TimeUnit unit) {
+    return new HedgingPolicy(unit.toNanos(initialDelay), true, percentile, AsyncCalls.defaultExecutor());
+  }
+
+  /**
+   * Returns this policy running the backup calls on the executor instead of {@link AsyncCalls#defaultExecutor()}.
+   * The executor must run tasks on other threads than the caller's.
+   */
+  public HedgingPolicy withExecutor(Executor executor) {
+    return new HedgingPolicy(delayNanos, adaptive, percentile, executor);
+  }
+
+  long delayNanos() {
+    return delayNanos;
+  }
+
+  boolean isAdaptive() {
+    return adaptive;
+  }
+
+  double percentile() {
+    return percentile;
+  }
+
+  Executor executor() {
+    return executor;
+  }
+}
@@ -0,0 +1,62 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The calls of one method of a generated single-flight decorator that are running, by their arguments. A call with
+ * the same key as a running call waits for it and gets its result, or the exception it threw, instead of calling
+ * the delegate again. A call is removed once it completed, so only running calls are ever kept.
+ */
+public final class InFlightCalls<V> {
+  private static final Object NULL_KEY = new Object();
+
+  private final ConcurrentMap<Object, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+  public interface Call<V> {
+    V call() throws Throwable;
+  }
+
+  /**
+   * Runs the call unless a call with an equal key is running, in which case this waits for that call to complete.
+   * Exceptions are rethrown as thrown, even if they are checked, which is safe because the generated methods
+   * declare the exceptions of their delegates.
+   */
+  public V execute(Object key, Call<V> call) {
+    Object mapKey = key != null ? key : NULL_KEY;
+    CompletableFuture<V> pending = new CompletableFuture<>();
+    CompletableFuture<V> running = calls.putIfAbsent(mapKey, pending);
+    if (running != null) {
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        throw InFlightCalls.<RuntimeException>rethrow(e.getCause());
+      }
+    }
+    try {
+      V value = call.call();
+      pending.complete(value);
+      return value;
+    } catch (Throwable e) {
+      // Wrapped, so join() throws this wrapper even for a CompletionException or CancellationException of the call
+      pending.completeExceptionally(new CompletionException(e));
+      throw InFlightCalls.<RuntimeException>rethrow(e);
+    } finally {
+      calls.remove(mapKey, pending);
+    }
+  }
+
+  /**
+   * Returns the number of distinct calls running.
+   */
+  public int size() {
+    return calls.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> E rethrow(Throwable error) throws E {
+    throw (E) error;
+  }
+}
@@ -0,0 +1,83 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with {@value #BUCKETS} fixed power of two buckets. Bucket {@code i} counts latencies
+ * of {@code i} significant bits, so bucket 0 holds 0ns and bucket {@code i > 0} holds
+ * {@code [2^(i - 1), 2^i - 1]} ns. Counts are striped by thread to keep concurrent writers off each other's cache
+ * lines; recording never allocates.
+ */
+public final class LatencyHistogram {
+  public static final int BUCKETS = 64;
+
+  private static final int STRIPES = stripes();
+
+  private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+  public void record(long nanos) {
+    long latency = Math.max(0L, nanos);
+    int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+    counts.getAndIncrement(stripe * BUCKETS + bucket(latency));
+    totalNanos.add(latency);
+    maxNanos.accumulate(latency);
+  }
+
+  /**
+   * Returns the counts per bucket, summed over all stripes.
+   */
+  public long[] bucketCounts() {
+    long[] buckets = new long[BUCKETS];
+    for (int i = 0; i < counts.length(); i++) {
+      buckets[i % BUCKETS] += counts.get(i);
+    }
+    return buckets;
+  }
+
+  public long totalNanos() {
+    return totalNanos.sum();
+  }
+
+  public long maxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Returns the latency below which the given percentage of the counted latencies are, rounded up to the upper bound
+   * of its bucket and capped at the maximum.
+   */
+  static long percentileNanos(long[] bucketCounts, long count, long maxNanos, double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long counted = 0;
+    for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+      counted += bucketCounts[bucket];
+      if (counted >= rank) {
+        return Math.min(bucketUpperBoundNanos(bucket), maxNanos);
+      }
+    }
+    return maxNanos;
+  }
+
+  static int bucket(long nanos) {
+    return 64 - Long.numberOfLeadingZeros(nanos);
+  }
+
+  /**
+   * Returns the largest latency counted in the bucket.
+   */
+  public static long bucketUpperBoundNanos(int bucket) {
+    return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+
+  private static int stripes() {
+    int processors = Math.min(64, Runtime.getRuntime().availableProcessors());
+    return Integer.highestOneBit(processors * 2 - 1);
+  }
+}
@@ -0,0 +1,47 @@
+package com.highstakes.autointerface.runtime;
+
+/**
+ * {@link ClockCache} for {@code long} keys, which are stored unboxed. Other primitive keys are widened or mapped to
+ * their bits by the generated code.
+ */
+public final class LongCache<V> extends ClockCache<V> {
+
+  public LongCache(int maximumSize, long expireAfterWriteMillis) {
+    super(maximumSize, expireAfterWriteMillis);
+  }
+
+  public V get(long key) {
+    int hash = Hashing.hash(key);
+    int first = firstSlot(hash);
+    for (int way = 0; way < WAYS; way++) {
+      Entry<V> entry = entry(first + way);
+      if (entry == null) {
+        return null;
+      }
+      if (((LongEntry<V>) entry).key == key) {
+        return read(entry);
+      }
+    }
+    return null;
+  }
+
+  public void put(long key, V value) {
+    if (value != null) {
+      insert(new LongEntry<>(Hashing.hash(key), key, value, expiresAt()));
+    }
+  }
+
+  private static final class LongEntry<V> extends Entry<V> {
+    final long key;
+
+    LongEntry(int hash, long key, V value, long expiresAt) {
+      super(hash, value, expiresAt);
+      this.key = key;
+    }
+
+    @Override
+    boolean sameKey(Entry<V> other) {
+      return ((LongEntry<V>) other).key == key;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.highstakes.autointerface.runtime;
+
+/**
+ * {@link ClockCache} for methods with two primitive parameters of which one is a {@code long} or {@code double}, which
+ * stores both keys unboxed. Other primitive keys are widened or mapped to their bits by the generated code; two
+ * narrower parameters are packed into a single {@link LongCache} key instead.
+ */
+public final class LongPairCache<V> extends ClockCache<V> {
+
+  public LongPairCache(int maximumSize, long expireAfterWriteMillis) {
+    super(maximumSize, expireAfterWriteMillis);
+  }
+
+  public V get(long first, long second) {
+    int hash = hash(first, second);
+    int firstSlot = firstSlot(hash);
+    for (int way = 0; way < WAYS; way++) {
+      Entry<V> entry = entry(firstSlot + way);
+      if (entry == null) {
+        return null;
+      }
+      if (((LongPairEntry<V>) entry).matches(first, second)) {
+        return read(entry);
+      }
+    }
+    return null;
+  }
+
+  public void put(long first, long second, V value) {
+    if (value != null) {
+      insert(new LongPairEntry<>(hash(first, second), first, second, value, expiresAt()));
+    }
+  }
+
+  private static int hash(long first, long second) {
+    return Hashing.hash(31 * first + second);
+  }
+
+  private static final class LongPairEntry<V> extends Entry<V> {
+    final long first;
+    final long second;
+
+    LongPairEntry(int hash, long first, long second, V value, long expiresAt) {
+      super(hash, value, expiresAt);
+      this.first = first;
+      this.second = second;
+    }
+
+    boolean matches(long first, long second) {
+      return this.first == first && this.second == second;
+    }
+
+    @Override
+    boolean sameKey(Entry<V> other) {
+      LongPairEntry<V> pair = (LongPairEntry<V>) other;
+      return pair.matches(first, second);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.Arrays;
+
+/**
+ * Point in time copy of the {@link MethodMetrics} of one method, for exporting to any metrics backend. Latencies
+ * are only known for sampled calls.
+ */
+public final class MetricsSnapshot {
+  private final String method;
+  private final long calls;
+  private final long errors;
+  private final long[] bucketCounts;
+  private final long sampledCalls;
+  private final long totalNanos;
+  private final long maxNanos;
+
+  public MetricsSnapshot(String method, long calls, long errors, long[] bucketCounts, long totalNanos,
+      long maxNanos) {
+    this.method = method;
+    this.calls = calls;
+    this.errors = errors;
+    this.bucketCounts = bucketCounts.clone();
+    this.sampledCalls = Arrays.stream(bucketCounts).sum();
+    this.totalNanos = totalNanos;
+    this.maxNanos = maxNanos;
+  }
+
+  /**
+   * Returns the method name with its parameter types, like {@code find(java.lang.String, int)}.
+   */
+  public String method() {
+    return method;
+  }
+
+  public long calls() {
+    return calls;
+  }
+
+  public long errors() {
+    return errors;
+  }
+
+  public long sampledCalls() {
+    return sampledCalls;
+  }
+
+  public long totalNanos() {
+    return totalNanos;
+  }
+
+  public long maxNanos() {
+    return maxNanos;
+  }
+
+  public double meanNanos() {
+    return sampledCalls == 0 ? 0 : (double) totalNanos / sampledCalls;
+  }
+
+  /**
+   * Returns the latency below which the given percentage of sampled calls completed, rounded up to the upper bound
+   * of its {@link LatencyHistogram} bucket.
+   */
+  public long percentileNanos(double percentile) {
+    return LatencyHistogram.percentileNanos(bucketCounts, sampledCalls, maxNanos, percentile);
+  }
+
+  /**
+   * Returns the number of sampled calls per {@link LatencyHistogram} bucket.
+   */
+  public long[] bucketCounts() {
+    return bucketCounts.clone();
+  }
+
+  @Override
+  public String toString() {
+    return method + "{calls=" + calls + ", errors=" + errors + ", p50=" + percentileNanos(50)
+        + "ns, p99=" + percentileNanos(99) + "ns, max=" + maxNanos + "ns}";
+  }
+}
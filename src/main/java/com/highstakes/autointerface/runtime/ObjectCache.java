@@ -0,0 +1,48 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.Objects;
+
+/**
+ * {@link ClockCache} for keys compared with {@link Object#equals}.
+ */
+public final class ObjectCache<K, V> extends ClockCache<V> {
+
+  public ObjectCache(int maximumSize, long expireAfterWriteMillis) {
+    super(maximumSize, expireAfterWriteMillis);
+  }
+
+  public V get(K key) {
+    int hash = Hashing.hash(key);
+    int first = firstSlot(hash);
+    for (int way = 0; way < WAYS; way++) {
+      Entry<V> entry = entry(first + way);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.hash == hash && Objects.equals(((KeyEntry<?, V>) entry).key, key)) {
+        return read(entry);
+      }
+    }
+    return null;
+  }
+
+  public void put(K key, V value) {
+    if (value != null) {
+      insert(new KeyEntry<>(Hashing.hash(key), key, value, expiresAt()));
+    }
+  }
+
+  private static final class KeyEntry<K, V> extends Entry<V> {
+    final K key;
+
+    KeyEntry(int hash, K key, V value, long expiresAt) {
+      super(hash, value, expiresAt);
+      this.key = key;
+    }
+
+    @Override
+    boolean sameKey(Entry<V> other) {
+      return other.hash == hash && Objects.equals(((KeyEntry<?, V>) other).key, key);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.Objects;
+
+/**
+ * {@link ClockCache} for methods with two parameters, which stores both arguments in the entry instead of
+ * allocating a key object per call.
+ */
+public final class PairCache<A, B, V> extends ClockCache<V> {
+
+  public PairCache(int maximumSize, long expireAfterWriteMillis) {
+    super(maximumSize, expireAfterWriteMillis);
+  }
+
+  public V get(A first, B second) {
+    int hash = hash(first, second);
+    int firstSlot = firstSlot(hash);
+    for (int way = 0; way < WAYS; way++) {
+      Entry<V> entry = entry(firstSlot + way);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.hash == hash && ((PairEntry<?, ?, V>) entry).matches(first, second)) {
+        return read(entry);
+      }
+    }
+    return null;
+  }
+
+  public void put(A first, B second, V value) {
+    if (value != null) {
+      insert(new PairEntry<>(hash(first, second), first, second, value, expiresAt()));
+    }
+  }
+
+  private static int hash(Object first, Object second) {
+    return Hashing.spread(31 * Objects.hashCode(first) + Objects.hashCode(second));
+  }
+
+  private static final class PairEntry<A, B, V> extends Entry<V> {
+    final A first;
+    final B second;
+
+    PairEntry(int hash, A first, B second, V value, long expiresAt) {
+      super(hash, value, expiresAt);
+      this.first = first;
+      this.second = second;
+    }
+
+    boolean matches(Object first, Object second) {
+      return Objects.equals(this.first, first) && Objects.equals(this.second, second);
+    }
+
+    @Override
+    boolean sameKey(Entry<V> other) {
+      PairEntry<?, ?, V> pair = (PairEntry<?, ?, V>) other;
+      return pair.hash == hash && pair.matches(first, second);
+    }
+  }
+}
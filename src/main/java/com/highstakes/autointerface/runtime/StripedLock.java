@@ -0,0 +1,73 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The locks of a generated concurrent decorator: a power of two number of {@link StampedLock} stripes. Methods keyed
+ * by their first argument lock the stripe of the argument, all other methods lock every stripe, in order. With a
+ * single stripe this is one read/write lock. The locks are not reentrant.
+ */
+public final class StripedLock {
+  private final StampedLock[] stripes;
+  private final int mask;
+
+  public StripedLock(int stripes) {
+    if (stripes < 1 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("stripes must be between 1 and 2^16, was " + stripes);
+    }
+    int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.stripes = new StampedLock[size];
+    for (int i = 0; i < size; i++) {
+      this.stripes[i] = new StampedLock();
+    }
+    this.mask = size - 1;
+  }
+
+  public StampedLock stripe(Object key) {
+    return stripes[Hashing.hash(key) & mask];
+  }
+
+  public StampedLock stripe(long key) {
+    return stripes[Hashing.hash(key) & mask];
+  }
+
+  public void readLockAll() {
+    for (StampedLock stripe : stripes) {
+      stripe.readLock();
+    }
+  }
+
+  public void unlockReadAll() {
+    for (int i = stripes.length - 1; i >= 0; i--) {
+      stripes[i].tryUnlockRead();
+    }
+  }
+
+  public void writeLockAll() {
+    for (StampedLock stripe : stripes) {
+      stripe.writeLock();
+    }
+  }
+
+  public void unlockWriteAll() {
+    for (int i = stripes.length - 1; i >= 0; i--) {
+      stripes[i].tryUnlockWrite();
+    }
+  }
+
+  /**
+   * Returns a stamp to {@link #validate} an optimistic read of every stripe later, or 0 if a stripe is write
+   * locked. Optimistic reads across several stripes are not supported, so this returns 0 for more than one stripe
+   * and the read falls back to {@link #readLockAll()}.
+   */
+  public long tryOptimisticRead() {
+    return stripes.length == 1 ? stripes[0].tryOptimisticRead() : 0L;
+  }
+
+  /**
+   * Whether no stripe was write locked since the stamp was returned by {@link #tryOptimisticRead()}.
+   */
+  public boolean validate(long stamp) {
+    return stripes.length == 1 && stripes[0].validate(stamp);
+  }
+}
@@ -0,0 +1,263 @@
+package com.highstakes.autointerface.runtime;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Queue of the calls of generated batching decorators, executed in order on a background thread. Callers enqueue
+ * onto a bounded lock-free ring buffer with many producers and a single consumer. The consumer drains up to
+ * {@code maxBatchSize} calls at a time; it is woken when that many calls are pending and otherwise waits at most
+ * {@code maxDelayMillis} for more calls. Exceptions thrown by calls are passed to the error handler.
+ *
+ * <p>The background thread is a daemon, so {@link #close()} the queue to execute pending calls before exiting.
+ */
+public final class WriteBehindQueue implements AutoCloseable {
+  public static final int DEFAULT_CAPACITY = 8192;
+  public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+  public static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+
+  private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+  private static final AtomicInteger THREADS = new AtomicInteger();
+
+  /**
+   * What {@link #enqueue} does when the queue is full.
+   */
+  public enum Overflow {
+    /**
+     * Wait until the consumer made room.
+     */
+    BLOCK,
+    /**
+     * Discard the call, counted by {@link #dropped()}.
+     */
+    DROP,
+    /**
+     * Execute the call on the calling thread, ahead of the calls in the queue.
+     */
+    CALLER_RUNS
+  }
+
+  /**
+   * A call captured with its arguments.
+   */
+  public interface Call {
+    void run() throws Throwable;
+  }
+
+  private final AtomicReferenceArray<Call> calls;
+  /**
+   * Sequence of every slot: the position of the next call to enqueue into it, plus one once that call was enqueued.
+   */
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  /**
+   * Position of the next call to dequeue, written by the consumer after executing a batch.
+   */
+  private volatile long head;
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final Overflow overflow;
+  private final Consumer<Throwable> errorHandler;
+  private final LongAdder dropped = new LongAdder();
+  private final Thread consumer;
+  private volatile boolean closed;
+
+  public WriteBehindQueue() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_DELAY_MILLIS, Overflow.BLOCK,
+        WriteBehindQueue::reportError);
+  }
+
+  /**
+   * @param capacity number of pending calls, rounded up to a power of two of at least 2
+   * @param maxBatchSize number of calls executed per wake up of the consumer
+   * @param maxDelayMillis time the consumer waits for a full batch
+   * @param overflow what to do with calls when the queue is full
+   * @param errorHandler receives the exceptions thrown by calls
+   */
+  public WriteBehindQueue(int capacity, int maxBatchSize, long maxDelayMillis, Overflow overflow,
+      Consumer<Throwable> errorHandler) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("capacity must be between 1 and 2^30, was " + capacity);
+    }
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be positive, was " + maxBatchSize);
+    }
+    if (maxDelayMillis < 1) {
+      throw new IllegalArgumentException("maxDelayMillis must be positive, was " + maxDelayMillis);
+    }
+    // Free and full slots have consecutive sequences, which only differ from the next round with two or more slots
+    int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+    this.calls = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.mask = size - 1;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    this.overflow = overflow;
+    this.errorHandler = errorHandler;
+    this.consumer = new Thread(this::drainUntilClosed, "autointerface-write-behind-" + THREADS.incrementAndGet());
+    consumer.setDaemon(true);
+    consumer.start();
+  }
+
+  /**
+   * Enqueues the call, or handles it according to the {@link Overflow} policy if the queue is full.
+   *
+   * @throws IllegalStateException if the queue is closed
+   */
+  public void enqueue(Call call) {
+    checkOpen();
+    if (offer(call)) {
+      return;
+    }
+    switch (overflow) {
+      case DROP:
+        dropped.increment();
+        return;
+      case CALLER_RUNS:
+        execute(call);
+        return;
+      default:
+        do {
+          LockSupport.unpark(consumer);
+          LockSupport.parkNanos(this, WAIT_NANOS);
+          checkOpen();
+        } while (!offer(call));
+    }
+  }
+
+  private boolean offer(Call call) {
+    long position;
+    int index;
+    while (true) {
+      position = tail.get();
+      index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          break;
+        }
+      } else if (difference < 0) {
+        return false;
+      }
+    }
+    calls.lazySet(index, call);
+    sequences.lazySet(index, position + 1);
+    if (position + 1 - head >= maxBatchSize) {
+      LockSupport.unpark(consumer);
+    }
+    return true;
+  }
+
+  private void drainUntilClosed() {
+    while (true) {
+      if (drain() == 0) {
+        if (closed && tail.get() == head) {
+          return;
+        }
+        LockSupport.parkNanos(this, maxDelayNanos);
+      }
+    }
+  }
+
+  private int drain() {
+    long position = head;
+    int count = 0;
+    while (count < maxBatchSize) {
+      int index = (int) position & mask;
+      if (sequences.get(index) != position + 1) {
+        break;
+      }
+      Call call = calls.get(index);
+      calls.lazySet(index, null);
+      sequences.lazySet(index, position + mask + 1);
+      position++;
+      count++;
+      execute(call);
+    }
+    head = position;
+    return count;
+  }
+
+  private void execute(Call call) {
+    try {
+      call.run();
+    } catch (Throwable e) {
+      try {
+        errorHandler.accept(e);
+      } catch (Throwable handlerError) {
+        reportError(handlerError);
+      }
+    }
+  }
+
+  /**
+   * Blocks until every call enqueued before was executed. Returns early if the calling thread is interrupted, with
+   * its interrupt status set.
+   */
+  public void flush() {
+    if (Thread.currentThread() == consumer) {
+      return;
+    }
+    long target = tail.get();
+    while (head < target && consumer.isAlive()) {
+      LockSupport.unpark(consumer);
+      LockSupport.parkNanos(this, WAIT_NANOS);
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Stops accepting calls and blocks until the pending calls were executed. Calls enqueued concurrently with closing
+   * may be lost.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(consumer);
+    if (Thread.currentThread() == consumer) {
+      return;
+    }
+    try {
+      consumer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Returns the number of calls enqueued but not executed yet.
+   */
+  public long pending() {
+    return Math.max(0, tail.get() - head);
+  }
+
+  /**
+   * Returns the number of calls discarded by {@link Overflow#DROP}.
+   */
+  public long dropped() {
+    return dropped.sum();
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("WriteBehindQueue is closed");
+    }
+  }
+
+  private static void reportError(Throwable error) {
+    Thread thread = Thread.currentThread();
+    thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+  }
+}
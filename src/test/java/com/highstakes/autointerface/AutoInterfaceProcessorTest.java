@@ -2,13 +2,57 @@ package com.highstakes.autointerface;
 
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.JavaFileObjects;
+import com.highstakes.autointerface.runtime.AutoInterfaceIndex;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
 import static com.google.testing.compile.Compiler.javac;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class AutoInterfaceProcessorTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   @Test
   public void shouldInheritGenericsAndSubstituteTypes() {
@@ -60,75 +104,75 @@ public class AutoInterfaceProcessorTest {
                 + "import java.util.stream.Stream;\n"
                 + "\n"
                 + "public interface BasicClassInterface<T extends Integer> {\n"
-                + "    Stream<Boolean> stream();\n"
-                + "\n"
-                + "    Stream<Boolean> parallelStream();\n"
-                + "\n"
-                + "    boolean containsAll(Collection<?> arg0);\n"
+                + "    void add(int arg0, Boolean arg1);\n"
                 + "\n"
-                + "    void trimToSize();\n"
+                + "    boolean add(Boolean arg0);\n"
                 + "\n"
-                + "    void ensureCapacity(int arg0);\n"
+                + "    boolean addAll(int arg0, Collection<? extends Boolean> arg1);\n"
                 + "\n"
-                + "    int size();\n"
+                + "    boolean addAll(Collection<? extends Boolean> arg0);\n"
                 + "\n"
-                + "    boolean isEmpty();\n"
+                + "    void clear();\n"
                 + "\n"
                 + "    boolean contains(Object arg0);\n"
                 + "\n"
-                + "    int indexOf(Object arg0);\n"
-                + "\n"
-                + "    int lastIndexOf(Object arg0);\n"
+                + "    boolean containsAll(Collection<?> arg0);\n"
                 + "\n"
-                + "    Object[] toArray();\n"
+                + "    void ensureCapacity(int arg0);\n"
                 + "\n"
-                + "    <T> T[] toArray(T[] arg0);\n"
+                + "    void forEach(Consumer<? super Boolean> arg0);\n"
                 + "\n"
                 + "    Boolean get(int arg0);\n"
                 + "\n"
-                + "    Boolean set(int arg0, Boolean arg1);\n"
+                + "    int indexOf(Object arg0);\n"
                 + "\n"
-                + "    boolean add(Boolean arg0);\n"
+                + "    boolean isEmpty();\n"
                 + "\n"
-                + "    void add(int arg0, Boolean arg1);\n"
+                + "    Iterator<Boolean> iterator();\n"
                 + "\n"
-                + "    Boolean remove(int arg0);\n"
+                + "    int lastIndexOf(Object arg0);\n"
                 + "\n"
-                + "    boolean remove(Object arg0);\n"
+                + "    ListIterator<Boolean> listIterator();\n"
                 + "\n"
-                + "    void clear();\n"
+                + "    ListIterator<Boolean> listIterator(int arg0);\n"
                 + "\n"
-                + "    boolean addAll(Collection<? extends Boolean> arg0);\n"
+                + "    Stream<Boolean> parallelStream();\n"
                 + "\n"
-                + "    boolean addAll(int arg0, Collection<? extends Boolean> arg1);\n"
+                + "    Boolean remove(int arg0);\n"
+                + "\n"
+                + "    boolean remove(Object arg0);\n"
                 + "\n"
                 + "    boolean removeAll(Collection<?> arg0);\n"
                 + "\n"
-                + "    boolean retainAll(Collection<?> arg0);\n"
+                + "    boolean removeIf(Predicate<? super Boolean> arg0);\n"
                 + "\n"
-                + "    ListIterator<Boolean> listIterator(int arg0);\n"
+                + "    void replaceAll(UnaryOperator<Boolean> arg0);\n"
                 + "\n"
-                + "    ListIterator<Boolean> listIterator();\n"
+                + "    boolean retainAll(Collection<?> arg0);\n"
                 + "\n"
-                + "    Iterator<Boolean> iterator();\n"
+                + "    Boolean set(int arg0, Boolean arg1);\n"
                 + "\n"
-                + "    List<Boolean> subList(int arg0, int arg1);\n"
+                + "    int size();\n"
                 + "\n"
-                + "    void forEach(Consumer<? super Boolean> arg0);\n"
+                + "    void sort(Comparator<? super Boolean> arg0);\n"
                 + "\n"
                 + "    Spliterator<Boolean> spliterator();\n"
                 + "\n"
-                + "    boolean removeIf(Predicate<? super Boolean> arg0);\n"
-                + "\n"
-                + "    void replaceAll(UnaryOperator<Boolean> arg0);\n"
+                + "    Stream<Boolean> stream();\n"
                 + "\n"
-                + "    void sort(Comparator<? super Boolean> arg0);\n"
+                + "    List<Boolean> subList(int arg0, int arg1);\n"
                 + "\n"
                 + "    boolean superMethod1(String input1, boolean input2) throws Exception;\n"
                 + "\n"
+                + "    Long superMethod2(Long input) throws Exception;\n"
+                + "\n"
                 + "    void superSuperMethod1();\n"
                 + "\n"
-                + "    Long superMethod2(Long input) throws Exception;\n"
+                + "    Object[] toArray();\n"
+                + "\n"
+                + "    <T> T[] toArray(T[] arg0);\n"
+                + "\n"
+                + "    void trimToSize();\n"
                 + "\n"
                 + "    T method1(T input);\n"
                 + "\n"
@@ -145,6 +189,116 @@ public class AutoInterfaceProcessorTest {
   }
 
 
+  @Test
+  public void shouldSubstituteSharedSupertypeForEachSubclass() {
+    JavaFileObject superClass = JavaFileObjects.forSourceLines("test.SuperClass",
+        "package test;",
+        "",
+        "public class SuperClass<B> {",
+        "    public B superMethod1(B input) { return input; }",
+        "    public void superMethod2(B input) {}",
+        "}");
+    JavaFileObject stringClass = JavaFileObjects.forSourceLines("test.StringClass",
+        "package test;",
+        "import com.highstakes.autointerface.AutoInterface;",
+        "",
+        "@AutoInterface(includeInherted = true)",
+        "public class StringClass extends SuperClass<String> {",
+        "    public void superMethod2(String input) {}",
+        "    public void stringClassMethod1() {}",
+        "}");
+    JavaFileObject longClass = JavaFileObjects.forSourceLines("test.LongClass",
+        "package test;",
+        "import com.highstakes.autointerface.AutoInterface;",
+        "",
+        "@AutoInterface(includeInherted = true)",
+        "public class LongClass<T> extends SuperClass<Long> {",
+        "    public T longClassMethod1(T input) { return input; }",
+        "}");
+
+    JavaFileObject stringInterface = JavaFileObjects.forSourceLines("test.StringClassInterface",
+        "package test;\n"
+            + "\n"
+            + "import java.lang.String;\n"
+            + "\n"
+            + "public interface StringClassInterface {\n"
+            + "    String superMethod1(String input);\n"
+            + "\n"
+            + "    void superMethod2(String input);\n"
+            + "\n"
+            + "    void stringClassMethod1();\n"
+            + "}"
+    );
+    JavaFileObject longInterface = JavaFileObjects.forSourceLines("test.LongClassInterface",
+        "package test;\n"
+            + "\n"
+            + "import java.lang.Long;\n"
+            + "\n"
+            + "public interface LongClassInterface<T> {\n"
+            + "    Long superMethod1(Long input);\n"
+            + "\n"
+            + "    void superMethod2(Long input);\n"
+            + "\n"
+            + "    T longClassMethod1(T input);\n"
+            + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+        .compile(superClass, stringClass, longClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+        .generatedSourceFile("test.StringClassInterface")
+        .hasSourceEquivalentTo(stringInterface);
+    assertThat(compilation)
+        .generatedSourceFile("test.LongClassInterface")
+        .hasSourceEquivalentTo(longInterface);
+  }
+
+  @Test
+  public void shouldKeepCovariantOverrideOnly() {
+    JavaFileObject source = JavaFileObjects.forSourceLines("test.Source",
+        "package test;",
+        "",
+        "public interface Source {",
+        "    Object value();",
+        "    Number count(int offset);",
+        "}");
+    JavaFileObject superClass = JavaFileObjects.forSourceLines("test.SuperClass",
+        "package test;",
+        "",
+        "public class SuperClass {",
+        "    public String value() { return \"\"; }",
+        "}");
+    JavaFileObject baseClass = JavaFileObjects.forSourceLines("test.BaseClass",
+        "package test;",
+        "import com.highstakes.autointerface.AutoInterface;",
+        "",
+        "@AutoInterface(includeInherted = true)",
+        "public abstract class BaseClass extends SuperClass implements Source {",
+        "    public Integer count(int offset) { return offset; }",
+        "}");
+
+    JavaFileObject generatedInterface = JavaFileObjects.forSourceLines("test.BaseClassInterface",
+        "package test;\n"
+            + "\n"
+            + "import java.lang.Integer;\n"
+            + "import java.lang.String;\n"
+            + "\n"
+            + "public interface BaseClassInterface {\n"
+            + "    String value();\n"
+            + "\n"
+            + "    Integer count(int offset);\n"
+            + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+        .compile(source, superClass, baseClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+        .generatedSourceFile("test.BaseClassInterface")
+        .hasSourceEquivalentTo(generatedInterface);
+  }
+
   @Test
   public void shouldFollowCustomNaming() {
     JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
@@ -172,6 +326,43 @@ public class AutoInterfaceProcessorTest {
         .hasSourceEquivalentTo(generatedInterface);
   }
 
+  @Test
+  public void shouldSkipObjectMethodsButKeepTheirOverloads() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+        "package test;",
+        "import com.highstakes.autointerface.AutoInterface;",
+        "",
+        "@AutoInterface",
+        "public class BaseClass {",
+        "    public boolean equals(Object other) { return this == other; }",
+        "    public boolean equals(String other) { return false; }",
+        "    public int hashCode() { return 0; }",
+        "    public String toString(int indent) { return \"\"; }",
+        "    public void wait(int seconds) {}",
+        "}");
+
+    JavaFileObject generatedInterface = JavaFileObjects.forSourceLines("test.BaseClassInterface",
+        "package test;\n"
+            + "\n"
+            + "import java.lang.String;\n"
+            + "\n"
+            + "public interface BaseClassInterface {\n"
+            + "    boolean equals(String other);\n"
+            + "\n"
+            + "    String toString(int indent);\n"
+            + "\n"
+            + "    void wait(int seconds);\n"
+            + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+        .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+        .generatedSourceFile("test.BaseClassInterface")
+        .hasSourceEquivalentTo(generatedInterface);
+  }
+
   @Test
   public void shouldFollowCustomPkg() {
     JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
@@ -282,27 +473,43 @@ public class AutoInterfaceProcessorTest {
   }
 
   @Test
-  public void shouldCreateDecoratorOnlyIfRootIsInterface() {
-    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseInterface",
+  public void shouldGenerateDecoratorClass() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
             "package test;",
             "import com.highstakes.autointerface.AutoInterface;",
+            "import java.util.ArrayList;",
+            "import java.util.List;",
             "",
-            "@AutoInterface(pkg = \"result\", createDecorator = true)",
-            "public interface BaseInterface {",
-            "    public void baseClassMethod1();",
+            "@AutoInterface(pkg = \"result\", createDecoratorClass = true)",
+            "public class BaseClass<T, G extends List<T>> {",
+            "    public T baseClassMethod1(T p1, ArrayList<? extends ArrayList> p2) { return p1; }",
+            "    public <R> void baseClassMethod2(R delegate) throws Exception {}",
             "}");
 
-    JavaFileObject generatedInterface = JavaFileObjects.forSourceLines("result.BaseClassInterface",
-            "package result;\n",
-                    "import java.lang.Override;\n"
-                    + "import test.BaseInterface;\n"
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.AbstractBaseClassDecorator",
+            "package result;\n"
                     + "\n"
-                    + "public interface BaseInterfaceDecorator extends BaseInterface {\n"
-                    + "    BaseInterface getDecoratedObject();\n"
+                    + "import java.lang.Exception;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.util.ArrayList;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "public abstract class AbstractBaseClassDecorator<T, G extends List<T>> "
+                    + "implements BaseClassInterface<T, G> {\n"
+                    + "    protected final BaseClassInterface<T, G> delegate;\n"
+                    + "\n"
+                    + "    protected AbstractBaseClassDecorator(BaseClassInterface<T, G> delegate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "    }\n"
                     + "\n"
                     + "    @Override\n"
-                    + "    default void baseClassMethod1() {\n"
-                    + "        getDecoratedObject().baseClassMethod1();\n"
+                    + "    public T baseClassMethod1(T p1, ArrayList<? extends ArrayList> p2) {\n"
+                    + "        return this.delegate.baseClassMethod1(p1, p2);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public <R> void baseClassMethod2(R delegate) throws Exception {\n"
+                    + "        this.delegate.baseClassMethod2(delegate);\n"
                     + "    }\n"
                     + "}"
     );
@@ -311,7 +518,2260 @@ public class AutoInterfaceProcessorTest {
             .compile(sourceClass);
     assertThat(compilation).succeededWithoutWarnings();
     assertThat(compilation)
-            .generatedSourceFile("result.BaseInterfaceDecorator")
-            .hasSourceEquivalentTo(generatedInterface);
+            .generatedSourceFile("result.AbstractBaseClassDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldGenerateMetricsDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(pkg = \"result\", createMetricsDecorator = true)",
+            "public class BaseClass<T> {",
+            "    public T find(T key) throws Exception { return key; }",
+            "    public int add(int a, int b) { return a + b; }",
+            "    public long add(long a, long b) { return a + b; }",
+            "    public <R> void accept(R start) {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassMetricsDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.MethodMetrics;\n"
+                    + "import com.highstakes.autointerface.runtime.MetricsSnapshot;\n"
+                    + "import java.lang.Exception;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.Throwable;\n"
+                    + "import java.util.Arrays;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "public class BaseClassMetricsDecorator<T> implements BaseClassInterface<T> {\n"
+                    + "    private final BaseClassInterface<T> delegate;\n"
+                    + "\n"
+                    + "    private final MethodMetrics findMetrics;\n"
+                    + "\n"
+                    + "    private final MethodMetrics add_1Metrics;\n"
+                    + "\n"
+                    + "    private final MethodMetrics add_2Metrics;\n"
+                    + "\n"
+                    + "    private final MethodMetrics acceptMetrics;\n"
+                    + "\n"
+                    + "    public BaseClassMetricsDecorator(BaseClassInterface<T> delegate, int sampleRate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.findMetrics = new MethodMetrics(\"find(T)\", sampleRate);\n"
+                    + "        this.add_1Metrics = new MethodMetrics(\"add(int, int)\", sampleRate);\n"
+                    + "        this.add_2Metrics = new MethodMetrics(\"add(long, long)\", sampleRate);\n"
+                    + "        this.acceptMetrics = new MethodMetrics(\"accept(R)\", sampleRate);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public BaseClassMetricsDecorator(BaseClassInterface<T> delegate) {\n"
+                    + "        this(delegate, 1);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public T find(T key) throws Exception {\n"
+                    + "        long start = this.findMetrics.start();\n"
+                    + "        try {\n"
+                    + "            return this.delegate.find(key);\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            this.findMetrics.error();\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            this.findMetrics.stop(start);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public int add(int a, int b) {\n"
+                    + "        long start = this.add_1Metrics.start();\n"
+                    + "        try {\n"
+                    + "            return this.delegate.add(a, b);\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            this.add_1Metrics.error();\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            this.add_1Metrics.stop(start);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public long add(long a, long b) {\n"
+                    + "        long start = this.add_2Metrics.start();\n"
+                    + "        try {\n"
+                    + "            return this.delegate.add(a, b);\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            this.add_2Metrics.error();\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            this.add_2Metrics.stop(start);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public <R> void accept(R start) {\n"
+                    + "        long start_ = this.acceptMetrics.start();\n"
+                    + "        try {\n"
+                    + "            this.delegate.accept(start);\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            this.acceptMetrics.error();\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            this.acceptMetrics.stop(start_);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public List<MetricsSnapshot> metricsSnapshot() {\n"
+                    + "        return Arrays.asList(findMetrics.snapshot(), add_1Metrics.snapshot(), "
+                    + "add_2Metrics.snapshot(), acceptMetrics.snapshot());\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassMetricsDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldGenerateCachingDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.Cached;",
+            "",
+            "@AutoInterface(pkg = \"result\", createCachingDecorator = true)",
+            "public class BaseClass<T> {",
+            "    @Cached public String name(int id) { return \"\" + id; }",
+            "    @Cached(maximumSize = 16, expireAfterWriteMillis = 1000)",
+            "    public T find(T key) throws Exception { return key; }",
+            "    @Cached public long sum(long a, long b, long c) { return a + b + c; }",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassCachingDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.LongCache;\n"
+                    + "import com.highstakes.autointerface.runtime.ObjectCache;\n"
+                    + "import java.lang.Exception;\n"
+                    + "import java.lang.Long;\n"
+                    + "import java.lang.Object;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "import java.util.Arrays;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "public class BaseClassCachingDecorator<T> implements BaseClassInterface<T> {\n"
+                    + "    private final BaseClassInterface<T> delegate;\n"
+                    + "\n"
+                    + "    private final LongCache<String> nameCache;\n"
+                    + "\n"
+                    + "    private final ObjectCache<T, T> findCache;\n"
+                    + "\n"
+                    + "    private final ObjectCache<List<Object>, Long> sumCache;\n"
+                    + "\n"
+                    + "    public BaseClassCachingDecorator(BaseClassInterface<T> delegate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.nameCache = new LongCache<>(1024, 0L);\n"
+                    + "        this.findCache = new ObjectCache<>(16, 1000L);\n"
+                    + "        this.sumCache = new ObjectCache<>(1024, 0L);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String name(int id) {\n"
+                    + "        String cached = this.nameCache.get(id);\n"
+                    + "        if (cached == null) {\n"
+                    + "            cached = this.delegate.name(id);\n"
+                    + "            this.nameCache.put(id, cached);\n"
+                    + "        }\n"
+                    + "        return cached;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public T find(T key) throws Exception {\n"
+                    + "        T cached = this.findCache.get(key);\n"
+                    + "        if (cached == null) {\n"
+                    + "            cached = this.delegate.find(key);\n"
+                    + "            this.findCache.put(key, cached);\n"
+                    + "        }\n"
+                    + "        return cached;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public long sum(long a, long b, long c) {\n"
+                    + "        List<Object> key = Arrays.<Object>asList(a, b, c);\n"
+                    + "        Long cached = this.sumCache.get(key);\n"
+                    + "        if (cached == null) {\n"
+                    + "            cached = this.delegate.sum(a, b, c);\n"
+                    + "            this.sumCache.put(key, cached);\n"
+                    + "        }\n"
+                    + "        return cached;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void reset() {\n"
+                    + "        this.delegate.reset();\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassCachingDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldKeyPrimitivePairsWithoutBoxing() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.Cached;",
+            "",
+            "@AutoInterface(pkg = \"result\", createCachingDecorator = true)",
+            "public class BaseClass {",
+            "    @Cached public String cell(int row, boolean header) { return row + \"\" + header; }",
+            "    @Cached public String range(long from, float step) { return from + \"\" + step; }",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassCachingDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.LongCache;\n"
+                    + "import com.highstakes.autointerface.runtime.LongPairCache;\n"
+                    + "import java.lang.Float;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "\n"
+                    + "public class BaseClassCachingDecorator implements BaseClassInterface {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final LongCache<String> cellCache;\n"
+                    + "\n"
+                    + "    private final LongPairCache<String> rangeCache;\n"
+                    + "\n"
+                    + "    public BaseClassCachingDecorator(BaseClassInterface delegate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.cellCache = new LongCache<>(1024, 0L);\n"
+                    + "        this.rangeCache = new LongPairCache<>(1024, 0L);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String cell(int row, boolean header) {\n"
+                    + "        long key = (long) row << 32 | (header ? 1 : 0) & 0xFFFFFFFFL;\n"
+                    + "        String cached = this.cellCache.get(key);\n"
+                    + "        if (cached == null) {\n"
+                    + "            cached = this.delegate.cell(row, header);\n"
+                    + "            this.cellCache.put(key, cached);\n"
+                    + "        }\n"
+                    + "        return cached;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String range(long from, float step) {\n"
+                    + "        String cached = this.rangeCache.get(from, Float.floatToIntBits(step));\n"
+                    + "        if (cached == null) {\n"
+                    + "            cached = this.delegate.range(from, step);\n"
+                    + "            this.rangeCache.put(from, Float.floatToIntBits(step), cached);\n"
+                    + "        }\n"
+                    + "        return cached;\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassCachingDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldRejectCachedMethodsTakingArrays() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.Cached;",
+            "",
+            "@AutoInterface(pkg = \"result\", createCachingDecorator = true)",
+            "public class BaseClass {",
+            "    @Cached public int sum(int... values) { return values.length; }",
+            "}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("@Cached methods must not take arrays");
+  }
+
+  @Test
+  public void shouldRejectCachedVoidMethods() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.Cached;",
+            "",
+            "@AutoInterface(pkg = \"result\", createCachingDecorator = true)",
+            "public class BaseClass {",
+            "    @Cached public void reset() {}",
+            "}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("@Cached methods must return a value");
+  }
+
+  @Test
+  public void shouldGenerateBatchingDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.Batched;",
+            "import java.io.IOException;",
+            "",
+            "@AutoInterface(pkg = \"result\", createBatchingDecorator = true)",
+            "public class BaseClass {",
+            "    @Batched public void record(String event, long time) throws IOException {}",
+            "    @Batched public <T> void log(T delegate) {}",
+            "    public int count() { return 0; }",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassBatchingDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.WriteBehindQueue;\n"
+                    + "import java.io.IOException;\n"
+                    + "import java.lang.AutoCloseable;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "\n"
+                    + "public class BaseClassBatchingDecorator implements BaseClassInterface, AutoCloseable {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final WriteBehindQueue queue;\n"
+                    + "\n"
+                    + "    public BaseClassBatchingDecorator(BaseClassInterface delegate, WriteBehindQueue queue) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.queue = queue;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public BaseClassBatchingDecorator(BaseClassInterface delegate) {\n"
+                    + "        this(delegate, new WriteBehindQueue());\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void record(String event, long time) throws IOException {\n"
+                    + "        this.queue.enqueue(() -> {\n"
+                    + "            this.delegate.record(event, time);\n"
+                    + "        });\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public <T> void log(T delegate) {\n"
+                    + "        this.queue.enqueue(() -> {\n"
+                    + "            this.delegate.log(delegate);\n"
+                    + "        });\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public int count() {\n"
+                    + "        return this.delegate.count();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public void flush() {\n"
+                    + "        this.queue.flush();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void close() {\n"
+                    + "        this.queue.close();\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassBatchingDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldFlushBeforeForwardingFlushOfInterface() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.Batched;",
+            "",
+            "@AutoInterface(pkg = \"result\", createBatchingDecorator = true)",
+            "public class BaseClass {",
+            "    @Batched public void record(String event) {}",
+            "    public void flush() {}",
+            "}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassBatchingDecorator")
+            .contentsAsUtf8String()
+            .contains("public void flush() {\n"
+                    + "        this.queue.flush();\n"
+                    + "        this.delegate.flush();\n"
+                    + "    }");
+  }
+
+  @Test
+  public void shouldGenerateConcurrentDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.Read;",
+            "import com.highstakes.autointerface.Write;",
+            "",
+            "@AutoInterface(pkg = \"result\", createConcurrentDecorator = true)",
+            "public class BaseClass {",
+            "    public int size() { return 0; }",
+            "    @Read(optimistic = true) public long total() { return 0; }",
+            "    @Read(striped = true) public String name(int id) { return \"\"; }",
+            "    @Write(striped = true) public void rename(int id, String name) {}",
+            "    public void clear() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassConcurrentDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.StripedLock;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "import java.lang.Throwable;\n"
+                    + "import java.util.concurrent.locks.StampedLock;\n"
+                    + "\n"
+                    + "public class BaseClassConcurrentDecorator implements BaseClassInterface {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final StripedLock locks;\n"
+                    + "\n"
+                    + "    public BaseClassConcurrentDecorator(BaseClassInterface delegate, int stripes) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.locks = new StripedLock(stripes);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public BaseClassConcurrentDecorator(BaseClassInterface delegate) {\n"
+                    + "        this(delegate, 1);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public int size() {\n"
+                    + "        this.locks.readLockAll();\n"
+                    + "        try {\n"
+                    + "            return this.delegate.size();\n"
+                    + "        } finally {\n"
+                    + "            this.locks.unlockReadAll();\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public long total() {\n"
+                    + "        long stamp = this.locks.tryOptimisticRead();\n"
+                    + "        long value = 0;\n"
+                    + "        boolean valid = false;\n"
+                    + "        if (stamp != 0L) {\n"
+                    + "            try {\n"
+                    + "                value = this.delegate.total();\n"
+                    + "                valid = this.locks.validate(stamp);\n"
+                    + "            } catch (Throwable error) {\n"
+                    + "                if (this.locks.validate(stamp)) {\n"
+                    + "                    throw error;\n"
+                    + "                }\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "        if (!valid) {\n"
+                    + "            this.locks.readLockAll();\n"
+                    + "            try {\n"
+                    + "                value = this.delegate.total();\n"
+                    + "            } finally {\n"
+                    + "                this.locks.unlockReadAll();\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "        return value;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String name(int id) {\n"
+                    + "        StampedLock lock = this.locks.stripe(id);\n"
+                    + "        long stamp = lock.readLock();\n"
+                    + "        try {\n"
+                    + "            return this.delegate.name(id);\n"
+                    + "        } finally {\n"
+                    + "            lock.unlockRead(stamp);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void rename(int id, String name) {\n"
+                    + "        StampedLock lock = this.locks.stripe(id);\n"
+                    + "        long stamp = lock.writeLock();\n"
+                    + "        try {\n"
+                    + "            this.delegate.rename(id, name);\n"
+                    + "        } finally {\n"
+                    + "            lock.unlockWrite(stamp);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void clear() {\n"
+                    + "        this.locks.writeLockAll();\n"
+                    + "        try {\n"
+                    + "            this.delegate.clear();\n"
+                    + "        } finally {\n"
+                    + "            this.locks.unlockWriteAll();\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassConcurrentDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldTreatMethodsNamedLikeReadPrefixesAsReads() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(pkg = \"result\", createConcurrentDecorator = true)",
+            "public class BaseClass {",
+            "    public String get(int index) { return \"\"; }",
+            "    public boolean contains(Object value) { return false; }",
+            "    public void getaway() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassConcurrentDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.StripedLock;\n"
+                    + "import java.lang.Object;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "\n"
+                    + "public class BaseClassConcurrentDecorator implements BaseClassInterface {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final StripedLock locks;\n"
+                    + "\n"
+                    + "    public BaseClassConcurrentDecorator(BaseClassInterface delegate, int stripes) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.locks = new StripedLock(stripes);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public BaseClassConcurrentDecorator(BaseClassInterface delegate) {\n"
+                    + "        this(delegate, 1);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String get(int index) {\n"
+                    + "        this.locks.readLockAll();\n"
+                    + "        try {\n"
+                    + "            return this.delegate.get(index);\n"
+                    + "        } finally {\n"
+                    + "            this.locks.unlockReadAll();\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public boolean contains(Object value) {\n"
+                    + "        this.locks.readLockAll();\n"
+                    + "        try {\n"
+                    + "            return this.delegate.contains(value);\n"
+                    + "        } finally {\n"
+                    + "            this.locks.unlockReadAll();\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void getaway() {\n"
+                    + "        this.locks.writeLockAll();\n"
+                    + "        try {\n"
+                    + "            this.delegate.getaway();\n"
+                    + "        } finally {\n"
+                    + "            this.locks.unlockWriteAll();\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassConcurrentDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldLockOptimisticReadsWrappingOtherFusedBehaviours() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.AutoInterface.Behaviour;",
+            "import com.highstakes.autointerface.Cached;",
+            "import com.highstakes.autointerface.Read;",
+            "",
+            "@AutoInterface(pkg = \"result\", fusedDecorator = {Behaviour.CONCURRENT, Behaviour.CACHING})",
+            "public class BaseClass {",
+            "    @Read(optimistic = true) @Cached public long total(int id) { return 0; }",
+            "    @Read(optimistic = true) public long count() { return 0; }",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassFusedDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.LongCache;\n"
+                    + "import com.highstakes.autointerface.runtime.StripedLock;\n"
+                    + "import java.lang.Long;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.Throwable;\n"
+                    + "\n"
+                    + "public class BaseClassFusedDecorator implements BaseClassInterface {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final StripedLock locks;\n"
+                    + "\n"
+                    + "    private final LongCache<Long> totalCache;\n"
+                    + "\n"
+                    + "    public BaseClassFusedDecorator(BaseClassInterface delegate, int stripes) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.locks = new StripedLock(stripes);\n"
+                    + "        this.totalCache = new LongCache<>(1024, 0L);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public BaseClassFusedDecorator(BaseClassInterface delegate) {\n"
+                    + "        this(delegate, 1);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public long total(int id) {\n"
+                    + "        this.locks.readLockAll();\n"
+                    + "        try {\n"
+                    + "            Long cached = this.totalCache.get(id);\n"
+                    + "            if (cached == null) {\n"
+                    + "                cached = this.delegate.total(id);\n"
+                    + "                this.totalCache.put(id, cached);\n"
+                    + "            }\n"
+                    + "            return cached;\n"
+                    + "        } finally {\n"
+                    + "            this.locks.unlockReadAll();\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public long count() {\n"
+                    + "        long stamp = this.locks.tryOptimisticRead();\n"
+                    + "        long value = 0;\n"
+                    + "        boolean valid = false;\n"
+                    + "        if (stamp != 0L) {\n"
+                    + "            try {\n"
+                    + "                value = this.delegate.count();\n"
+                    + "                valid = this.locks.validate(stamp);\n"
+                    + "            } catch (Throwable error) {\n"
+                    + "                if (this.locks.validate(stamp)) {\n"
+                    + "                    throw error;\n"
+                    + "                }\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "        if (!valid) {\n"
+                    + "            this.locks.readLockAll();\n"
+                    + "            try {\n"
+                    + "                value = this.delegate.count();\n"
+                    + "            } finally {\n"
+                    + "                this.locks.unlockReadAll();\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "        return value;\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassFusedDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldGenerateJfrDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import java.io.IOException;",
+            "",
+            "@AutoInterface(pkg = \"result\", createJfrDecorator = true)",
+            "public class BaseClass {",
+            "    public int add(int a, int b) { return a + b; }",
+            "    public long add(long a, int method) { return a + method; }",
+            "    public String find(String key) throws IOException {",
+            "        if (key.isEmpty()) throw new IOException(\"empty\");",
+            "        return key;",
+            "    }",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassJfrDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import java.io.IOException;\n"
+                    + "import java.lang.Class;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "import java.lang.Throwable;\n"
+                    + "import jdk.jfr.Category;\n"
+                    + "import jdk.jfr.Event;\n"
+                    + "import jdk.jfr.EventType;\n"
+                    + "import jdk.jfr.Label;\n"
+                    + "import jdk.jfr.Name;\n"
+                    + "import jdk.jfr.StackTrace;\n"
+                    + "\n"
+                    + "public class BaseClassJfrDecorator implements BaseClassInterface {\n"
+                    + "    private static final EventType CALL_EVENT_TYPE = EventType.getEventType(CallEvent.class);\n"
+                    + "\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    public BaseClassJfrDecorator(BaseClassInterface delegate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public int add(int a, int b) {\n"
+                    + "        CallEvent event = null;\n"
+                    + "        if (CALL_EVENT_TYPE.isEnabled()) {\n"
+                    + "            event = new CallEvent();\n"
+                    + "            event.begin();\n"
+                    + "        }\n"
+                    + "        try {\n"
+                    + "            return this.delegate.add(a, b);\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            if (event != null) {\n"
+                    + "                event.exception = error.getClass();\n"
+                    + "            }\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            if (event != null) {\n"
+                    + "                event.end();\n"
+                    + "                if (event.shouldCommit()) {\n"
+                    + "                    event.method = \"add(int, int)\";\n"
+                    + "                    event.a = a;\n"
+                    + "                    event.b = b;\n"
+                    + "                    event.commit();\n"
+                    + "                }\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public long add(long a, int method) {\n"
+                    + "        CallEvent event = null;\n"
+                    + "        if (CALL_EVENT_TYPE.isEnabled()) {\n"
+                    + "            event = new CallEvent();\n"
+                    + "            event.begin();\n"
+                    + "        }\n"
+                    + "        try {\n"
+                    + "            return this.delegate.add(a, method);\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            if (event != null) {\n"
+                    + "                event.exception = error.getClass();\n"
+                    + "            }\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            if (event != null) {\n"
+                    + "                event.end();\n"
+                    + "                if (event.shouldCommit()) {\n"
+                    + "                    event.method = \"add(long, int)\";\n"
+                    + "                    event.a_ = a;\n"
+                    + "                    event.method_ = method;\n"
+                    + "                    event.commit();\n"
+                    + "                }\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String find(String key) throws IOException {\n"
+                    + "        CallEvent event = null;\n"
+                    + "        if (CALL_EVENT_TYPE.isEnabled()) {\n"
+                    + "            event = new CallEvent();\n"
+                    + "            event.begin();\n"
+                    + "        }\n"
+                    + "        try {\n"
+                    + "            return this.delegate.find(key);\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            if (event != null) {\n"
+                    + "                event.exception = error.getClass();\n"
+                    + "            }\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            if (event != null) {\n"
+                    + "                event.end();\n"
+                    + "                if (event.shouldCommit()) {\n"
+                    + "                    event.method = \"find(java.lang.String)\";\n"
+                    + "                    event.commit();\n"
+                    + "                }\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void reset() {\n"
+                    + "        CallEvent event = null;\n"
+                    + "        if (CALL_EVENT_TYPE.isEnabled()) {\n"
+                    + "            event = new CallEvent();\n"
+                    + "            event.begin();\n"
+                    + "        }\n"
+                    + "        try {\n"
+                    + "            this.delegate.reset();\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            if (event != null) {\n"
+                    + "                event.exception = error.getClass();\n"
+                    + "            }\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            if (event != null) {\n"
+                    + "                event.end();\n"
+                    + "                if (event.shouldCommit()) {\n"
+                    + "                    event.method = \"reset()\";\n"
+                    + "                    event.commit();\n"
+                    + "                }\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Name(\"result.BaseClassInterface\")\n"
+                    + "    @Label(\"BaseClassInterface Call\")\n"
+                    + "    @Category(\"AutoInterface\")\n"
+                    + "    @StackTrace(false)\n"
+                    + "    static final class CallEvent extends Event {\n"
+                    + "        String method;\n"
+                    + "\n"
+                    + "        Class<?> exception;\n"
+                    + "\n"
+                    + "        int a;\n"
+                    + "\n"
+                    + "        int b;\n"
+                    + "\n"
+                    + "        long a_;\n"
+                    + "\n"
+                    + "        int method_;\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassJfrDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldRecordCallsAsJfrEvents() throws Exception {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import java.io.IOException;",
+            "",
+            "@AutoInterface(pkg = \"result\", createJfrDecorator = true)",
+            "public class BaseClass implements result.BaseClassInterface {",
+            "    public int add(int a, int b) { return a + b; }",
+            "    public long add(long a, int method) { return a + method; }",
+            "    public String find(String key) throws IOException {",
+            "        if (key.isEmpty()) throw new IOException(\"empty\");",
+            "        return key;",
+            "    }",
+            "    public void reset() {}",
+            "}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    ClassLoader classLoader = new CompiledClassLoader(compilation);
+    Class<?> mainInterface = classLoader.loadClass("result.BaseClassInterface");
+    Object decorator = classLoader.loadClass("result.BaseClassJfrDecorator")
+            .getConstructor(mainInterface)
+            .newInstance(classLoader.loadClass("test.BaseClass").getConstructor().newInstance());
+    File file = temporaryFolder.newFile("calls.jfr");
+
+    mainInterface.getMethod("add", int.class, int.class).invoke(decorator, 5, 6);
+    try (Recording recording = new Recording()) {
+      recording.enable("result.BaseClassInterface");
+      recording.start();
+      mainInterface.getMethod("add", int.class, int.class).invoke(decorator, 1, 2);
+      mainInterface.getMethod("add", long.class, int.class).invoke(decorator, 3L, 4);
+      try {
+        mainInterface.getMethod("find", String.class).invoke(decorator, "");
+        fail();
+      } catch (InvocationTargetException e) {
+        assertEquals(IOException.class, e.getCause().getClass());
+      }
+      recording.stop();
+      recording.dump(file.toPath());
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+    assertEquals(3, events.size());
+    assertEquals("add(int, int)", events.get(0).getString("method"));
+    assertEquals(1, events.get(0).getInt("a"));
+    assertEquals(2, events.get(0).getInt("b"));
+    assertNull(events.get(0).getClass("exception"));
+    assertEquals("add(long, int)", events.get(1).getString("method"));
+    assertEquals(3L, events.get(1).getLong("a_"));
+    assertEquals(4, events.get(1).getInt("method_"));
+    assertEquals("find(java.lang.String)", events.get(2).getString("method"));
+    assertEquals("java.io.IOException", events.get(2).getClass("exception").getName());
+  }
+
+  @Test
+  public void shouldGenerateHedgingDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.Idempotent;",
+            "import java.io.IOException;",
+            "",
+            "@AutoInterface(pkg = \"result\", createHedgingDecorator = true)",
+            "public class BaseClass {",
+            "    @Idempotent",
+            "    public String find(String key) throws IOException { return key; }",
+            "    @Idempotent",
+            "    public int count(int limit) { return limit; }",
+            "    @Idempotent",
+            "    public void refresh() {}",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassHedgingDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.HedgedMethod;\n"
+                    + "import com.highstakes.autointerface.runtime.HedgingPolicy;\n"
+                    + "import java.io.IOException;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "import java.util.Arrays;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "public class BaseClassHedgingDecorator implements BaseClassInterface {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final BaseClassInterface backup;\n"
+                    + "\n"
+                    + "    private final HedgedMethod findHedging;\n"
+                    + "\n"
+                    + "    private final HedgedMethod countHedging;\n"
+                    + "\n"
+                    + "    private final HedgedMethod refreshHedging;\n"
+                    + "\n"
+                    + "    public BaseClassHedgingDecorator(BaseClassInterface delegate, BaseClassInterface backup,\n"
+                    + "            HedgingPolicy policy) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.backup = backup;\n"
+                    + "        this.findHedging = new HedgedMethod(\"find(java.lang.String)\", policy);\n"
+                    + "        this.countHedging = new HedgedMethod(\"count(int)\", policy);\n"
+                    + "        this.refreshHedging = new HedgedMethod(\"refresh()\", policy);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String find(String key) throws IOException {\n"
+                    + "        return this.findHedging.call(() -> {\n"
+                    + "            return this.delegate.find(key);\n"
+                    + "        }, () -> this.backup.find(key));\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public int count(int limit) {\n"
+                    + "        return this.countHedging.call(() -> {\n"
+                    + "            return this.delegate.count(limit);\n"
+                    + "        }, () -> this.backup.count(limit));\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void refresh() {\n"
+                    + "        this.refreshHedging.run(() -> {\n"
+                    + "            this.delegate.refresh();\n"
+                    + "        }, () -> this.backup.refresh());\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void reset() {\n"
+                    + "        this.delegate.reset();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public List<HedgedMethod> hedgedMethods() {\n"
+                    + "        return Arrays.asList(findHedging, countHedging, refreshHedging);\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassHedgingDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldGenerateSingleFlightDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.SingleFlight;",
+            "import java.io.IOException;",
+            "",
+            "@AutoInterface(pkg = \"result\", createSingleFlightDecorator = true)",
+            "public class BaseClass {",
+            "    @SingleFlight public String find(String key) throws IOException { return key; }",
+            "    @SingleFlight public int count() { return 0; }",
+            "    @SingleFlight public String join(String first, int second) { return first + second; }",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassSingleFlightDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.InFlightCalls;\n"
+                    + "import java.io.IOException;\n"
+                    + "import java.lang.Integer;\n"
+                    + "import java.lang.Object;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "import java.util.Arrays;\n"
+                    + "\n"
+                    + "public class BaseClassSingleFlightDecorator implements BaseClassInterface {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final InFlightCalls<String> findFlight;\n"
+                    + "\n"
+                    + "    private final InFlightCalls<Integer> countFlight;\n"
+                    + "\n"
+                    + "    private final InFlightCalls<String> joinFlight;\n"
+                    + "\n"
+                    + "    public BaseClassSingleFlightDecorator(BaseClassInterface delegate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.findFlight = new InFlightCalls<>();\n"
+                    + "        this.countFlight = new InFlightCalls<>();\n"
+                    + "        this.joinFlight = new InFlightCalls<>();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String find(String key) throws IOException {\n"
+                    + "        return this.findFlight.execute(key, () -> {\n"
+                    + "            return this.delegate.find(key);\n"
+                    + "        });\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public int count() {\n"
+                    + "        return this.countFlight.execute(null, () -> {\n"
+                    + "            return this.delegate.count();\n"
+                    + "        });\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String join(String first, int second) {\n"
+                    + "        return this.joinFlight.execute(Arrays.<Object>asList(first, second), () -> {\n"
+                    + "            return this.delegate.join(first, second);\n"
+                    + "        });\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void reset() {\n"
+                    + "        this.delegate.reset();\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassSingleFlightDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldRejectSingleFlightVoidMethods() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.SingleFlight;",
+            "",
+            "@AutoInterface(pkg = \"result\", createSingleFlightDecorator = true)",
+            "public class BaseClass {",
+            "    @SingleFlight public void reset() {}",
+            "}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("@SingleFlight methods must return a value");
+  }
+
+  @Test
+  public void shouldGenerateSwappableDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import java.io.IOException;",
+            "",
+            "@AutoInterface(pkg = \"result\", createSwappableDecorator = true)",
+            "public class BaseClass {",
+            "    public String find(String key) throws IOException { return key; }",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassSwappableDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import java.io.IOException;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;\n"
+                    + "\n"
+                    + "public class BaseClassSwappableDecorator implements BaseClassInterface {\n"
+                    + "    private static final AtomicReferenceFieldUpdater<BaseClassSwappableDecorator, "
+                    + "BaseClassInterface> DELEGATE = AtomicReferenceFieldUpdater.newUpdater("
+                    + "BaseClassSwappableDecorator.class, BaseClassInterface.class, \"delegate\");\n"
+                    + "\n"
+                    + "    private volatile BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    public BaseClassSwappableDecorator(BaseClassInterface delegate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String find(String key) throws IOException {\n"
+                    + "        return this.delegate.find(key);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void reset() {\n"
+                    + "        this.delegate.reset();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * Returns the current delegate.\n"
+                    + "     */\n"
+                    + "    public BaseClassInterface getDecoratedObject() {\n"
+                    + "        return this.delegate;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * Replaces the delegate and returns the previous one, which calls already running keep using.\n"
+                    + "     */\n"
+                    + "    public BaseClassInterface swap(BaseClassInterface delegate) {\n"
+                    + "        return DELEGATE.getAndSet(this, delegate);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * Replaces the delegate if it is still the expected one, returns whether it was replaced.\n"
+                    + "     */\n"
+                    + "    public boolean compareAndSwap(BaseClassInterface expected, BaseClassInterface delegate) {\n"
+                    + "        return DELEGATE.compareAndSet(this, expected, delegate);\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassSwappableDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldGenerateSwappableDecoratorDrainingDelegates() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(pkg = \"result\", createSwappableDecorator = true, swappableDecoratorDrains = true)",
+            "public class BaseClass<T> {",
+            "    public T find(T delegate) { return delegate; }",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassSwappableDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.DrainableDelegate;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.SuppressWarnings;\n"
+                    + "import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;\n"
+                    + "import java.util.function.Consumer;\n"
+                    + "\n"
+                    + "public class BaseClassSwappableDecorator<T> implements BaseClassInterface<T> {\n"
+                    + "    @SuppressWarnings(\"rawtypes\")\n"
+                    + "    private static final AtomicReferenceFieldUpdater<BaseClassSwappableDecorator, "
+                    + "DrainableDelegate> DELEGATE = AtomicReferenceFieldUpdater.newUpdater("
+                    + "BaseClassSwappableDecorator.class, DrainableDelegate.class, \"delegate\");\n"
+                    + "\n"
+                    + "    private final Consumer<? super BaseClassInterface<T>> drained;\n"
+                    + "\n"
+                    + "    private volatile DrainableDelegate<BaseClassInterface<T>> delegate;\n"
+                    + "\n"
+                    + "    public BaseClassSwappableDecorator(BaseClassInterface<T> delegate,\n"
+                    + "            Consumer<? super BaseClassInterface<T>> drained) {\n"
+                    + "        this.drained = drained;\n"
+                    + "        this.delegate = new DrainableDelegate<>(delegate, drained);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public T find(T delegate) {\n"
+                    + "        DrainableDelegate<BaseClassInterface<T>> delegate_ = enter();\n"
+                    + "        try {\n"
+                    + "            return delegate_.get().find(delegate);\n"
+                    + "        } finally {\n"
+                    + "            delegate_.exit();\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void reset() {\n"
+                    + "        DrainableDelegate<BaseClassInterface<T>> delegate = enter();\n"
+                    + "        try {\n"
+                    + "            delegate.get().reset();\n"
+                    + "        } finally {\n"
+                    + "            delegate.exit();\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * Returns the current delegate.\n"
+                    + "     */\n"
+                    + "    public BaseClassInterface<T> getDecoratedObject() {\n"
+                    + "        return this.delegate.get();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * Replaces the delegate and returns the previous one, which calls already running keep using.\n"
+                    + "     */\n"
+                    + "    @SuppressWarnings(\"unchecked\")\n"
+                    + "    public BaseClassInterface<T> swap(BaseClassInterface<T> delegate) {\n"
+                    + "        DrainableDelegate<BaseClassInterface<T>> previous = DELEGATE.getAndSet(this, "
+                    + "new DrainableDelegate<>(delegate, this.drained));\n"
+                    + "        previous.retire();\n"
+                    + "        return previous.get();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * Replaces the delegate if it is still the expected one, returns whether it was replaced.\n"
+                    + "     */\n"
+                    + "    public boolean compareAndSwap(BaseClassInterface<T> expected, BaseClassInterface<T> delegate) {\n"
+                    + "        DrainableDelegate<BaseClassInterface<T>> replacement = "
+                    + "new DrainableDelegate<>(delegate, this.drained);\n"
+                    + "        for (DrainableDelegate<BaseClassInterface<T>> current = this.delegate; "
+                    + "current.get() == expected; current = this.delegate) {\n"
+                    + "            if (DELEGATE.compareAndSet(this, current, replacement)) {\n"
+                    + "                current.retire();\n"
+                    + "                return true;\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "        return false;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    private DrainableDelegate<BaseClassInterface<T>> enter() {\n"
+                    + "        DrainableDelegate<BaseClassInterface<T>> delegate = this.delegate;\n"
+                    + "        while (!delegate.enter()) {\n"
+                    + "            delegate = this.delegate;\n"
+                    + "        }\n"
+                    + "        return delegate;\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassSwappableDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldGenerateFusedDecorator() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.AutoInterface.Behaviour;",
+            "import com.highstakes.autointerface.Cached;",
+            "",
+            "@AutoInterface(pkg = \"result\",",
+            "    fusedDecorator = {Behaviour.METRICS, Behaviour.CACHING, Behaviour.CONCURRENT})",
+            "public class BaseClass {",
+            "    @Cached public String getName(String key) { return key; }",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassFusedDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.MethodMetrics;\n"
+                    + "import com.highstakes.autointerface.runtime.MetricsSnapshot;\n"
+                    + "import com.highstakes.autointerface.runtime.ObjectCache;\n"
+                    + "import com.highstakes.autointerface.runtime.StripedLock;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "import java.lang.Throwable;\n"
+                    + "import java.util.Arrays;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "public class BaseClassFusedDecorator implements BaseClassInterface {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final MethodMetrics getNameMetrics;\n"
+                    + "\n"
+                    + "    private final MethodMetrics resetMetrics;\n"
+                    + "\n"
+                    + "    private final ObjectCache<String, String> getNameCache;\n"
+                    + "\n"
+                    + "    private final StripedLock locks;\n"
+                    + "\n"
+                    + "    public BaseClassFusedDecorator(BaseClassInterface delegate, int sampleRate, int stripes) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.getNameMetrics = new MethodMetrics(\"getName(java.lang.String)\", sampleRate);\n"
+                    + "        this.resetMetrics = new MethodMetrics(\"reset()\", sampleRate);\n"
+                    + "        this.getNameCache = new ObjectCache<>(1024, 0L);\n"
+                    + "        this.locks = new StripedLock(stripes);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public BaseClassFusedDecorator(BaseClassInterface delegate) {\n"
+                    + "        this(delegate, 1, 1);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public String getName(String key) {\n"
+                    + "        long start = this.getNameMetrics.start();\n"
+                    + "        try {\n"
+                    + "            String cached = this.getNameCache.get(key);\n"
+                    + "            if (cached == null) {\n"
+                    + "                this.locks.readLockAll();\n"
+                    + "                try {\n"
+                    + "                    cached = this.delegate.getName(key);\n"
+                    + "                } finally {\n"
+                    + "                    this.locks.unlockReadAll();\n"
+                    + "                }\n"
+                    + "                this.getNameCache.put(key, cached);\n"
+                    + "            }\n"
+                    + "            return cached;\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            this.getNameMetrics.error();\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            this.getNameMetrics.stop(start);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void reset() {\n"
+                    + "        long start = this.resetMetrics.start();\n"
+                    + "        try {\n"
+                    + "            this.locks.writeLockAll();\n"
+                    + "            try {\n"
+                    + "                this.delegate.reset();\n"
+                    + "            } finally {\n"
+                    + "                this.locks.unlockWriteAll();\n"
+                    + "            }\n"
+                    + "        } catch (Throwable error) {\n"
+                    + "            this.resetMetrics.error();\n"
+                    + "            throw error;\n"
+                    + "        } finally {\n"
+                    + "            this.resetMetrics.stop(start);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public List<MetricsSnapshot> metricsSnapshot() {\n"
+                    + "        return Arrays.asList(getNameMetrics.snapshot(), resetMetrics.snapshot());\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassFusedDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldRejectBehaviourFusedTwice() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.AutoInterface.Behaviour;",
+            "",
+            "@AutoInterface(pkg = \"result\", fusedDecorator = {Behaviour.METRICS, Behaviour.METRICS})",
+            "public class BaseClass {",
+            "    public void reset() {}",
+            "}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("fusedDecorator lists METRICS more than once");
+  }
+
+  @Test
+  public void shouldRunBatchedCallsThroughBehavioursAfterBatching() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.AutoInterface.Behaviour;",
+            "import com.highstakes.autointerface.Batched;",
+            "",
+            "@AutoInterface(pkg = \"result\", fusedDecorator = {Behaviour.BATCHING, Behaviour.CONCURRENT})",
+            "public class BaseClass {",
+            "    @Batched public void log(String message) {}",
+            "}");
+
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.BaseClassFusedDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.StripedLock;\n"
+                    + "import com.highstakes.autointerface.runtime.WriteBehindQueue;\n"
+                    + "import java.lang.AutoCloseable;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.String;\n"
+                    + "\n"
+                    + "public class BaseClassFusedDecorator implements BaseClassInterface, AutoCloseable {\n"
+                    + "    private final BaseClassInterface delegate;\n"
+                    + "\n"
+                    + "    private final WriteBehindQueue queue;\n"
+                    + "\n"
+                    + "    private final StripedLock locks;\n"
+                    + "\n"
+                    + "    public BaseClassFusedDecorator(BaseClassInterface delegate, WriteBehindQueue queue,\n"
+                    + "            int stripes) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.queue = queue;\n"
+                    + "        this.locks = new StripedLock(stripes);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public BaseClassFusedDecorator(BaseClassInterface delegate) {\n"
+                    + "        this(delegate, new WriteBehindQueue(), 1);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void log(String message) {\n"
+                    + "        this.queue.enqueue(() -> {\n"
+                    + "            this.locks.writeLockAll();\n"
+                    + "            try {\n"
+                    + "                this.delegate.log(message);\n"
+                    + "            } finally {\n"
+                    + "                this.locks.unlockWriteAll();\n"
+                    + "            }\n"
+                    + "        });\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public void flush() {\n"
+                    + "        this.queue.flush();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void close() {\n"
+                    + "        this.queue.close();\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassFusedDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldRejectConcurrentFusedBeforeBatching() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import com.highstakes.autointerface.AutoInterface.Behaviour;",
+            "import com.highstakes.autointerface.Batched;",
+            "",
+            "@AutoInterface(pkg = \"result\", fusedDecorator = {Behaviour.CONCURRENT, Behaviour.BATCHING})",
+            "public class BaseClass {",
+            "    @Batched public void log(String message) {}",
+            "}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("fusedDecorator must list BATCHING before CONCURRENT");
+  }
+
+  @Test
+  public void shouldGenerateInterceptingProxy() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import java.io.IOException;",
+            "",
+            "@AutoInterface(pkg = \"result\", createInterceptingProxy = true)",
+            "public class BaseClass<T> {",
+            "    public T find(T key) throws IOException { return key; }",
+            "    public int add(int a, int b) { return a + b; }",
+            "    public int add(int next) { return next; }",
+            "    public <R> R[] toArray(R[] array) { return array; }",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedProxy = JavaFileObjects.forSourceLines("result.BaseClassInterceptingProxy",
+            "package result;\n"
+                    + "\n"
+                    + "import java.io.IOException;\n"
+                    + "import java.lang.IllegalArgumentException;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.SafeVarargs;\n"
+                    + "import java.lang.String;\n"
+                    + "import java.lang.Throwable;\n"
+                    + "\n"
+                    + "public final class BaseClassInterceptingProxy<T> implements BaseClassInterface<T> {\n"
+                    + "    public static final int FIND = 0;\n"
+                    + "\n"
+                    + "    public static final int ADD_1 = 1;\n"
+                    + "\n"
+                    + "    public static final int ADD_2 = 2;\n"
+                    + "\n"
+                    + "    public static final int TO_ARRAY = 3;\n"
+                    + "\n"
+                    + "    public static final int RESET = 4;\n"
+                    + "\n"
+                    + "    private final Interceptor<T> interceptor;\n"
+                    + "\n"
+                    + "    private final BaseClassInterface<T> next;\n"
+                    + "\n"
+                    + "    private BaseClassInterceptingProxy(Interceptor<T> interceptor, BaseClassInterface<T> next) {\n"
+                    + "        this.interceptor = interceptor;\n"
+                    + "        this.next = next;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public T find(T key) throws IOException {\n"
+                    + "        return this.interceptor.find(this.next, key);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public int add(int a, int b) {\n"
+                    + "        return this.interceptor.add(this.next, a, b);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public int add(int next) {\n"
+                    + "        return this.interceptor.add(this.next, next);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public <R> R[] toArray(R[] array) {\n"
+                    + "        return this.interceptor.toArray(this.next, array);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void reset() {\n"
+                    + "        this.interceptor.reset(this.next);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * Returns the delegate wrapped in a link per interceptor, the first interceptor being the\n"
+                    + "     * outermost.\n"
+                    + "     */\n"
+                    + "    @SafeVarargs\n"
+                    + "    public static <T> BaseClassInterface<T> of(BaseClassInterface<T> delegate, Interceptor<T>... interceptors) {\n"
+                    + "        BaseClassInterface<T> proxy = delegate;\n"
+                    + "        for (int i = interceptors.length - 1; i >= 0; i--) {\n"
+                    + "            proxy = new BaseClassInterceptingProxy<>(interceptors[i], proxy);\n"
+                    + "        }\n"
+                    + "        return proxy;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * Intercepts the calls of one link. The typed methods call {@code before}, the next link and\n"
+                    + "     * {@code after} unless they are overridden.\n"
+                    + "     */\n"
+                    + "    public interface Interceptor<T> {\n"
+                    + "        /**\n"
+                    + "         * Called before the method with the given ID, returns a token passed to {@code after}.\n"
+                    + "         */\n"
+                    + "        default long before(int method) {\n"
+                    + "            return 0L;\n"
+                    + "        }\n"
+                    + "\n"
+                    + "        /**\n"
+                    + "         * Called after the method with the given ID, with the exception it threw or {@code null}.\n"
+                    + "         */\n"
+                    + "        default void after(int method, long token, Throwable error) {\n"
+                    + "        }\n"
+                    + "\n"
+                    + "        default T find(BaseClassInterface<T> next, T key) throws IOException {\n"
+                    + "            long token = before(FIND);\n"
+                    + "            T result;\n"
+                    + "            try {\n"
+                    + "                result = next.find(key);\n"
+                    + "            } catch (Throwable error) {\n"
+                    + "                after(FIND, token, error);\n"
+                    + "                throw error;\n"
+                    + "            }\n"
+                    + "            after(FIND, token, null);\n"
+                    + "            return result;\n"
+                    + "        }\n"
+                    + "\n"
+                    + "        default int add(BaseClassInterface<T> next, int a, int b) {\n"
+                    + "            long token = before(ADD_1);\n"
+                    + "            int result;\n"
+                    + "            try {\n"
+                    + "                result = next.add(a, b);\n"
+                    + "            } catch (Throwable error) {\n"
+                    + "                after(ADD_1, token, error);\n"
+                    + "                throw error;\n"
+                    + "            }\n"
+                    + "            after(ADD_1, token, null);\n"
+                    + "            return result;\n"
+                    + "        }\n"
+                    + "\n"
+                    + "        default int add(BaseClassInterface<T> next_, int next) {\n"
+                    + "            long token = before(ADD_2);\n"
+                    + "            int result;\n"
+                    + "            try {\n"
+                    + "                result = next_.add(next);\n"
+                    + "            } catch (Throwable error) {\n"
+                    + "                after(ADD_2, token, error);\n"
+                    + "                throw error;\n"
+                    + "            }\n"
+                    + "            after(ADD_2, token, null);\n"
+                    + "            return result;\n"
+                    + "        }\n"
+                    + "\n"
+                    + "        default <R> R[] toArray(BaseClassInterface<T> next, R[] array) {\n"
+                    + "            long token = before(TO_ARRAY);\n"
+                    + "            R[] result;\n"
+                    + "            try {\n"
+                    + "                result = next.toArray(array);\n"
+                    + "            } catch (Throwable error) {\n"
+                    + "                after(TO_ARRAY, token, error);\n"
+                    + "                throw error;\n"
+                    + "            }\n"
+                    + "            after(TO_ARRAY, token, null);\n"
+                    + "            return result;\n"
+                    + "        }\n"
+                    + "\n"
+                    + "        default void reset(BaseClassInterface<T> next) {\n"
+                    + "            long token = before(RESET);\n"
+                    + "            try {\n"
+                    + "                next.reset();\n"
+                    + "            } catch (Throwable error) {\n"
+                    + "                after(RESET, token, error);\n"
+                    + "                throw error;\n"
+                    + "            }\n"
+                    + "            after(RESET, token, null);\n"
+                    + "        }\n"
+                    + "\n"
+                    + "        /**\n"
+                    + "         * Returns the name and parameter types of the method with the given ID.\n"
+                    + "         */\n"
+                    + "        static String signature(int method) {\n"
+                    + "            switch (method) {\n"
+                    + "                case FIND: return \"find(T)\";\n"
+                    + "                case ADD_1: return \"add(int, int)\";\n"
+                    + "                case ADD_2: return \"add(int)\";\n"
+                    + "                case TO_ARRAY: return \"toArray(R[])\";\n"
+                    + "                case RESET: return \"reset()\";\n"
+                    + "                default: throw new IllegalArgumentException(\"Unknown method \" + method);\n"
+                    + "            }\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassInterceptingProxy")
+            .hasSourceEquivalentTo(generatedProxy);
+  }
+
+  @Test
+  public void shouldGenerateAsyncInterfaceAndAdapter() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import java.io.IOException;",
+            "",
+            "@AutoInterface(pkg = \"result\", createAsync = true)",
+            "public class BaseClass<T> {",
+            "    public T find(T key) throws IOException { return key; }",
+            "    public int add(int a, int b) { return a + b; }",
+            "    public <R> R[] toArray(R[] array) { return array; }",
+            "    public void reset() {}",
+            "}");
+
+    JavaFileObject generatedAsync = JavaFileObjects.forSourceLines("result.BaseClassAsync",
+            "package result;\n"
+                    + "\n"
+                    + "import java.lang.Integer;\n"
+                    + "import java.lang.Void;\n"
+                    + "import java.util.concurrent.CompletableFuture;\n"
+                    + "\n"
+                    + "public interface BaseClassAsync<T> {\n"
+                    + "    CompletableFuture<T> find(T key);\n"
+                    + "\n"
+                    + "    CompletableFuture<Integer> add(int a, int b);\n"
+                    + "\n"
+                    + "    <R> CompletableFuture<R[]> toArray(R[] array);\n"
+                    + "\n"
+                    + "    CompletableFuture<Void> reset();\n"
+                    + "}"
+    );
+    JavaFileObject generatedAdapter = JavaFileObjects.forSourceLines("result.BaseClassAsyncAdapter",
+            "package result;\n"
+                    + "\n"
+                    + "import com.highstakes.autointerface.runtime.AsyncCalls;\n"
+                    + "import java.lang.Integer;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.lang.Void;\n"
+                    + "import java.util.concurrent.CompletableFuture;\n"
+                    + "import java.util.concurrent.Executor;\n"
+                    + "\n"
+                    + "public class BaseClassAsyncAdapter<T> implements BaseClassAsync<T> {\n"
+                    + "    private final BaseClassInterface<T> delegate;\n"
+                    + "\n"
+                    + "    private final Executor executor;\n"
+                    + "\n"
+                    + "    public BaseClassAsyncAdapter(BaseClassInterface<T> delegate, Executor executor) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "        this.executor = executor;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    public BaseClassAsyncAdapter(BaseClassInterface<T> delegate) {\n"
+                    + "        this(delegate, AsyncCalls.defaultExecutor());\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public CompletableFuture<T> find(T key) {\n"
+                    + "        return AsyncCalls.call(this.executor, () -> this.delegate.find(key));\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public CompletableFuture<Integer> add(int a, int b) {\n"
+                    + "        return AsyncCalls.call(this.executor, () -> this.delegate.add(a, b));\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public <R> CompletableFuture<R[]> toArray(R[] array) {\n"
+                    + "        return AsyncCalls.call(this.executor, () -> this.delegate.toArray(array));\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public CompletableFuture<Void> reset() {\n"
+                    + "        return AsyncCalls.run(this.executor, () -> this.delegate.reset());\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassAsync")
+            .hasSourceEquivalentTo(generatedAsync);
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassAsyncAdapter")
+            .hasSourceEquivalentTo(generatedAdapter);
+  }
+
+  @Test
+  public void shouldGenerateSpecializedInterfaceAndAdapter() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "import java.util.List;",
+            "",
+            "@AutoInterface(pkg = \"result\", specialize = \"K=long\", createDecoratorClass = true)",
+            "public class BaseClass<K, V extends List<K>> {",
+            "    public V get(K key) { return null; }",
+            "    public void put(K key, V value) {}",
+            "    public K[] keys() { return null; }",
+            "    public <K> K convert(K value) { return value; }",
+            "}");
+
+    JavaFileObject generatedInterface = JavaFileObjects.forSourceLines("result.BaseClassLongInterface",
+            "package result;\n"
+                    + "\n"
+                    + "import java.lang.Long;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "public interface BaseClassLongInterface<V extends List<Long>> {\n"
+                    + "    V get(long key);\n"
+                    + "\n"
+                    + "    void put(long key, V value);\n"
+                    + "\n"
+                    + "    Long[] keys();\n"
+                    + "\n"
+                    + "    <K> K convert(K value);\n"
+                    + "}"
+    );
+    JavaFileObject generatedAdapter = JavaFileObjects.forSourceLines("result.BaseClassLongAdapter",
+            "package result;\n"
+                    + "\n"
+                    + "import java.lang.Long;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "public class BaseClassLongAdapter<V extends List<Long>> "
+                    + "implements BaseClassInterface<Long, V> {\n"
+                    + "    private final BaseClassLongInterface<V> delegate;\n"
+                    + "\n"
+                    + "    public BaseClassLongAdapter(BaseClassLongInterface<V> delegate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public V get(Long key) {\n"
+                    + "        return this.delegate.get(key);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void put(Long key, V value) {\n"
+                    + "        this.delegate.put(key, value);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public Long[] keys() {\n"
+                    + "        return this.delegate.keys();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public <K> K convert(K value) {\n"
+                    + "        return this.delegate.convert(value);\n"
+                    + "    }\n"
+                    + "}"
+    );
+    JavaFileObject generatedDecorator = JavaFileObjects.forSourceLines("result.AbstractBaseClassLongDecorator",
+            "package result;\n"
+                    + "\n"
+                    + "import java.lang.Long;\n"
+                    + "import java.lang.Override;\n"
+                    + "import java.util.List;\n"
+                    + "\n"
+                    + "public abstract class AbstractBaseClassLongDecorator<V extends List<Long>> "
+                    + "implements BaseClassLongInterface<V> {\n"
+                    + "    protected final BaseClassLongInterface<V> delegate;\n"
+                    + "\n"
+                    + "    protected AbstractBaseClassLongDecorator(BaseClassLongInterface<V> delegate) {\n"
+                    + "        this.delegate = delegate;\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public V get(long key) {\n"
+                    + "        return this.delegate.get(key);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public void put(long key, V value) {\n"
+                    + "        this.delegate.put(key, value);\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public Long[] keys() {\n"
+                    + "        return this.delegate.keys();\n"
+                    + "    }\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    public <K> K convert(K value) {\n"
+                    + "        return this.delegate.convert(value);\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassLongInterface")
+            .hasSourceEquivalentTo(generatedInterface);
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseClassLongAdapter")
+            .hasSourceEquivalentTo(generatedAdapter);
+    assertThat(compilation)
+            .generatedSourceFile("result.AbstractBaseClassLongDecorator")
+            .hasSourceEquivalentTo(generatedDecorator);
+  }
+
+  @Test
+  public void shouldRejectInvalidSpecialization() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(pkg = \"result\", specialize = {",
+            "        \"K=Long\",",
+            "        \"N=long\"})",
+            "public class BaseClass<K, N extends CharSequence> {",
+            "    public N get(K key) { return null; }",
+            "}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("Invalid specialization K=Long")
+            .inFile(sourceClass)
+            .onLineContaining("\"K=Long\"");
+    assertThat(compilation).hadErrorContaining("Cannot specialize N as long")
+            .inFile(sourceClass)
+            .onLineContaining("\"N=long\"");
+  }
+
+  @Test
+  public void shouldCreateDecoratorOnlyIfRootIsInterface() {
+    JavaFileObject sourceClass = JavaFileObjects.forSourceLines("test.BaseInterface",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(pkg = \"result\", createDecorator = true)",
+            "public interface BaseInterface {",
+            "    public void baseClassMethod1();",
+            "}");
+
+    JavaFileObject generatedInterface = JavaFileObjects.forSourceLines("result.BaseClassInterface",
+            "package result;\n",
+                    "import java.lang.Override;\n"
+                    + "import test.BaseInterface;\n"
+                    + "\n"
+                    + "public interface BaseInterfaceDecorator extends BaseInterface {\n"
+                    + "    BaseInterface getDecoratedObject();\n"
+                    + "\n"
+                    + "    @Override\n"
+                    + "    default void baseClassMethod1() {\n"
+                    + "        getDecoratedObject().baseClassMethod1();\n"
+                    + "    }\n"
+                    + "}"
+    );
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sourceClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedSourceFile("result.BaseInterfaceDecorator")
+            .hasSourceEquivalentTo(generatedInterface);
+  }
+
+  @Test
+  public void shouldRenderInParallelIdenticallyToSequential() throws IOException {
+    List<JavaFileObject> sources = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      sources.add(JavaFileObjects.forSourceLines("test.BaseClass" + i,
+              "package test;",
+              "import com.highstakes.autointerface.AutoInterface;",
+              "import java.util.List;",
+              "",
+              "@AutoInterface(createDecorator = true)",
+              "public class BaseClass" + i + "<T> {",
+              "    public T baseClassMethod1(List<? extends T> p1) { return p1.get(0); }",
+              "    public <R> R baseClassMethod2(R p1, int p2) throws Exception { return p1; }",
+              "}"));
+    }
+
+    Compilation sequential = javac().withProcessors(new AutoInterfaceProcessor())
+            .compile(sources);
+    Compilation parallel = javac().withProcessors(new AutoInterfaceProcessor())
+            .withOptions("-A" + AutoInterfaceProcessor.PARALLEL_OPTION + "=4")
+            .compile(sources);
+    assertThat(sequential).succeededWithoutWarnings();
+    assertThat(parallel).succeededWithoutWarnings();
+    assertEquals(40, sequential.generatedSourceFiles().size());
+    assertEquals(contents(sequential.generatedSourceFiles()), contents(parallel.generatedSourceFiles()));
+  }
+
+  private static Map<String, String> contents(List<JavaFileObject> files) throws IOException {
+    Map<String, String> contents = new TreeMap<>();
+    for (JavaFileObject file : files) {
+      contents.put(file.getName(), file.getCharContent(true).toString());
+    }
+    return contents;
+  }
+
+  @Test
+  public void shouldWriteProcessingReport() throws IOException {
+    JavaFileObject superClass = JavaFileObjects.forSourceLines("test.SuperClass",
+            "package test;",
+            "",
+            "public class SuperClass {",
+            "    public void superMethod1() {}",
+            "    public void superMethod2() {}",
+            "}");
+    JavaFileObject baseClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(includeInherted = true, createDecorator = true)",
+            "public class BaseClass extends SuperClass {",
+            "    public void superMethod2() {}",
+            "    public void baseClassMethod1() {}",
+            "}");
+    File report = new File(temporaryFolder.getRoot(), "reports/autointerface.csv");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .withOptions("-A" + AutoInterfaceProcessor.REPORT_OPTION + "=" + report.getPath())
+            .compile(superClass, baseClass);
+    assertThat(compilation).succeededWithoutWarnings();
+
+    List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+    assertEquals("kind,round,type,total_ns,member_collection_ns,method_spec_ns,decorator_ns,render_ns,write_ns,"
+            + "members_before_dedup,members_after_dedup,files,bytes_written", lines.get(0));
+    String[] type = lines.get(1).split(",", -1);
+    assertEquals(Arrays.asList("type", "1", "test.BaseClass"), Arrays.asList(type).subList(0, 3));
+    assertEquals(Arrays.asList("4", "3", "2"), Arrays.asList(type).subList(9, 12));
+    long bytesWritten = compilation.generatedSourceFiles().stream()
+            .mapToLong(file -> contentLength(file))
+            .sum();
+    assertEquals(bytesWritten, Long.parseLong(type[12]));
+    String[] round = lines.get(2).split(",", -1);
+    assertEquals(Arrays.asList("round", "1", ""), Arrays.asList(round).subList(0, 3));
+    assertEquals(Arrays.asList(type).subList(9, 13), Arrays.asList(round).subList(9, 13));
+  }
+
+  private static long contentLength(JavaFileObject file) {
+    try {
+      return file.getCharContent(true).toString().getBytes(StandardCharsets.UTF_8).length;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Test
+  public void shouldBeRegisteredAsDynamicProcessor() throws IOException {
+    try (InputStream in = AutoInterfaceProcessor.class.getClassLoader()
+            .getResourceAsStream("META-INF/gradle/incremental.annotation.processors")) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[256];
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+        out.write(buffer, 0, read);
+      }
+      assertEquals("com.highstakes.autointerface.AutoInterfaceProcessor,dynamic",
+              new String(out.toByteArray(), StandardCharsets.UTF_8).trim());
+    }
+  }
+
+  @Test
+  public void shouldBeAggregatingOnlyWhenWritingIndex() {
+    JavaFileObject baseClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface",
+            "public class BaseClass {}");
+    AutoInterfaceProcessor isolating = new AutoInterfaceProcessor();
+    AutoInterfaceProcessor aggregating = new AutoInterfaceProcessor();
+
+    assertThat(javac().withProcessors(isolating).compile(baseClass)).succeededWithoutWarnings();
+    assertThat(javac().withProcessors(aggregating)
+            .withOptions("-A" + AutoInterfaceProcessor.INDEX_OPTION + "=true")
+            .compile(baseClass)).succeededWithoutWarnings();
+    assertTrue(isolating.getSupportedOptions().contains(AutoInterfaceProcessor.GRADLE_ISOLATING_OPTION));
+    assertFalse(isolating.getSupportedOptions().contains(AutoInterfaceProcessor.GRADLE_AGGREGATING_OPTION));
+    assertTrue(aggregating.getSupportedOptions().contains(AutoInterfaceProcessor.GRADLE_AGGREGATING_OPTION));
+    assertFalse(aggregating.getSupportedOptions().contains(AutoInterfaceProcessor.GRADLE_ISOLATING_OPTION));
+  }
+
+  @Test
+  public void shouldWriteIndexOfAnnotatedClasses() {
+    JavaFileObject baseClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(pkg = \"result\", createDecorator = true, createMetricsDecorator = true)",
+            "public class BaseClass {",
+            "    public void baseClassMethod1() {}",
+            "    @AutoInterface",
+            "    public static class Inner {}",
+            "}");
+    JavaFileObject baseInterface = JavaFileObjects.forSourceLines("test.BaseInterface",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(createDecorator = true)",
+            "public interface BaseInterface {}");
+
+    Compilation compilation = javac().withProcessors(new AutoInterfaceProcessor())
+            .withOptions("-A" + AutoInterfaceProcessor.INDEX_OPTION + "=true")
+            .compile(baseClass, baseInterface);
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+            .generatedFile(StandardLocation.CLASS_OUTPUT, "", AutoInterfaceIndex.RESOURCE)
+            .contentsAsUtf8String()
+            .isEqualTo(AutoInterfaceIndex.HEADER + "\n"
+                    + "result.BaseClassInterface test.BaseClass result.BaseClassDecorator "
+                    + "result.BaseClassMetricsDecorator\n"
+                    + "test.InnerBaseClassInterface test.BaseClass$Inner\n");
+  }
+
+  @Test
+  public void shouldOriginateEachGeneratedFileFromItsAnnotatedTypeOnly() {
+    JavaFileObject superClass = JavaFileObjects.forSourceLines("test.SuperClass",
+            "package test;",
+            "",
+            "public class SuperClass<B> {",
+            "    public B superMethod1(B input) { return input; }",
+            "}");
+    JavaFileObject baseClass = JavaFileObjects.forSourceLines("test.BaseClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface(includeInherted = true, createDecorator = true)",
+            "public class BaseClass extends SuperClass<String> {",
+            "    public void baseClassMethod1() {}",
+            "}");
+    JavaFileObject otherClass = JavaFileObjects.forSourceLines("test.OtherClass",
+            "package test;",
+            "import com.highstakes.autointerface.AutoInterface;",
+            "",
+            "@AutoInterface",
+            "public class OtherClass {",
+            "    public void otherClassMethod1() {}",
+            "}");
+
+    Map<String, List<String>> originatingElements = new TreeMap<>();
+    Compilation compilation = javac()
+            .withProcessors(new OriginRecordingProcessor(new AutoInterfaceProcessor(), originatingElements))
+            .compile(superClass, baseClass, otherClass);
+    assertThat(compilation).succeededWithoutWarnings();
+    Map<String, List<String>> expected = new TreeMap<>();
+    expected.put("test.BaseClassInterface", Collections.singletonList("test.BaseClass"));
+    expected.put("test.BaseClassDecorator", Collections.singletonList("test.BaseClass"));
+    expected.put("test.OtherClassInterface", Collections.singletonList("test.OtherClass"));
+    assertEquals(expected, originatingElements);
+  }
+
+  /**
+   * Loads the classes a compilation wrote to memory, like {@code mem:///CLASS_OUTPUT/test/BaseClass.class}.
+   */
+  private static final class CompiledClassLoader extends ClassLoader {
+    private final Map<String, JavaFileObject> classFiles = new HashMap<>();
+
+    CompiledClassLoader(Compilation compilation) {
+      super(AutoInterfaceProcessorTest.class.getClassLoader());
+      for (JavaFileObject file : compilation.generatedFiles()) {
+        if (file.getKind() == JavaFileObject.Kind.CLASS) {
+          String path = file.toUri().getPath();
+          classFiles.put(path.substring(path.indexOf('/', 1) + 1, path.length() - ".class".length())
+                  .replace('/', '.'), file);
+        }
+      }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      JavaFileObject file = classFiles.get(name);
+      if (file == null) {
+        throw new ClassNotFoundException(name);
+      }
+      try (InputStream in = file.openInputStream()) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+          out.write(buffer, 0, read);
+        }
+        return defineClass(name, out.toByteArray(), 0, out.size());
+      } catch (IOException e) {
+        throw new ClassNotFoundException(name, e);
+      }
+    }
+  }
+
+  /**
+   * Records the originating elements every source file is created with, the information Gradle uses to track
+   * isolating processors.
+   */
+  private static final class OriginRecordingProcessor implements Processor {
+    private final Processor delegate;
+    private final Map<String, List<String>> originatingElements;
+
+    OriginRecordingProcessor(Processor delegate, Map<String, List<String>> originatingElements) {
+      this.delegate = delegate;
+      this.originatingElements = originatingElements;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+      return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment env) {
+      Filer filer = env.getFiler();
+      Filer recordingFiler = proxy(Filer.class, (proxy, method, args) -> {
+        if ("createSourceFile".equals(method.getName())) {
+          originatingElements.put(args[0].toString(), Arrays.stream((Element[]) args[1])
+                  .map(element -> ((TypeElement) element).getQualifiedName().toString())
+                  .collect(Collectors.toList()));
+        }
+        return invoke(method, filer, args);
+      });
+      delegate.init(proxy(ProcessingEnvironment.class, (proxy, method, args) ->
+              "getFiler".equals(method.getName()) ? recordingFiler : invoke(method, env, args)));
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      return delegate.process(annotations, roundEnv);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation,
+            ExecutableElement member, String userText) {
+      return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+      return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
   }
 }
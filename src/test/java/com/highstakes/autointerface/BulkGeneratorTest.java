@@ -0,0 +1,209 @@
+package com.highstakes.autointerface;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BulkGeneratorTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void shouldGenerateInterfacesOfClassesInJars() throws IOException {
+    File jar = createJar(
+        "package lib;\n"
+            + "public final class Clock {\n"
+            + "    public long now() { return 0L; }\n"
+            + "    public static final class Zone {\n"
+            + "        public String id() { return \"UTC\"; }\n"
+            + "    }\n"
+            + "}\n",
+        "package lib;\n"
+            + "final class Hidden {\n"
+            + "    public void run() {}\n"
+            + "}\n",
+        "package lib.io;\n"
+            + "public class Reader {\n"
+            + "    public int read() { return -1; }\n"
+            + "}\n");
+    File output = temporaryFolder.newFolder("output");
+
+    assertEquals(0, run("--jars", jar.getPath(), "--output", output.getPath(), "--threads", "2",
+        "--set", "createDecoratorClass=true", "lib.*"));
+
+    assertEquals(Arrays.asList("lib/AbstractClockDecorator.java", "lib/ClockInterface.java"), list(output));
+    String clockInterface = read(new File(output, "lib/ClockInterface.java"));
+    assertTrue(clockInterface.contains("public interface ClockInterface {"));
+    assertTrue(clockInterface.contains("long now();"));
+  }
+
+  @Test
+  public void shouldMatchSubpackagesAndMemberClasses() throws IOException {
+    File jar = createJar(
+        "package lib;\n"
+            + "public final class Clock {\n"
+            + "    public static final class Zone {\n"
+            + "        public String id() { return \"UTC\"; }\n"
+            + "    }\n"
+            + "}\n",
+        "package lib.io;\n"
+            + "public class Reader {\n"
+            + "    public int read() { return -1; }\n"
+            + "}\n");
+    File output = temporaryFolder.newFolder("output");
+
+    assertEquals(0, run("--jars", jar.getPath(), "--output", output.getPath(), "lib.**"));
+
+    assertEquals(Arrays.asList("lib/ClockInterface.java", "lib/ZoneClockInterface.java",
+        "lib/io/ReaderInterface.java"), list(output));
+  }
+
+  @Test
+  public void shouldReuseCachedFilesWhileJarIsUnchanged() throws IOException {
+    File jar = createJar(
+        "package lib;\n"
+            + "public final class Clock {\n"
+            + "    public long now() { return 0L; }\n"
+            + "}\n");
+    File cache = temporaryFolder.newFolder("cache");
+    File first = temporaryFolder.newFolder("first");
+    File second = temporaryFolder.newFolder("second");
+
+    assertEquals(0, run("--jars", jar.getPath(), "--output", first.getPath(), "--cache", cache.getPath(),
+        "lib.Clock"));
+    File[] entries = cache.listFiles();
+    assertEquals(1, entries.length);
+    // Marks the cached file to see it copied instead of generated again
+    Files.write(new File(entries[0], "lib/ClockInterface.java").toPath(),
+        "cached".getBytes(StandardCharsets.UTF_8));
+    assertEquals(0, run("--jars", jar.getPath(), "--output", second.getPath(), "--cache", cache.getPath(),
+        "lib.Clock"));
+
+    assertEquals("cached", read(new File(second, "lib/ClockInterface.java")));
+    assertFalse(read(new File(first, "lib/ClockInterface.java")).equals("cached"));
+  }
+
+  @Test
+  public void shouldMissCacheWhenClasspathDirectoryChanges() throws IOException {
+    File jar = createJar(
+        "package lib;\n"
+            + "public final class Clock {\n"
+            + "    public long now() { return 0L; }\n"
+            + "}\n");
+    File classes = temporaryFolder.newFolder("classes");
+    File cache = temporaryFolder.newFolder("cache");
+    File output = temporaryFolder.newFolder("output");
+    Files.write(new File(classes, "Dependency.class").toPath(), new byte[] {1});
+
+    assertEquals(0, run("--jars", jar.getPath(), "--classpath", classes.getPath(), "--output", output.getPath(),
+        "--cache", cache.getPath(), "lib.Clock"));
+    Files.write(new File(classes, "Dependency.class").toPath(), new byte[] {2});
+    assertEquals(0, run("--jars", jar.getPath(), "--classpath", classes.getPath(), "--output", output.getPath(),
+        "--cache", cache.getPath(), "lib.Clock"));
+
+    assertEquals(2, cache.listFiles().length);
+  }
+
+  @Test
+  public void shouldSetBehavioursOfFusedDecorator() throws IOException {
+    File jar = createJar(
+        "package lib;\n"
+            + "public final class Clock {\n"
+            + "    public long now() { return 0L; }\n"
+            + "}\n");
+    File output = temporaryFolder.newFolder("output");
+
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    // The decorator uses the runtime classes, which javac must find for the run to succeed
+    int exitCode = BulkGenerator.run(new String[] {"--jars", jar.getPath(), "--output", output.getPath(),
+        "--set", "fusedDecorator=METRICS,CONCURRENT", "lib.Clock"}, new PrintStream(errors));
+    assertEquals(errors.toString(), 0, exitCode);
+    assertEquals(2, run("--jars", jar.getPath(), "--output", output.getPath(),
+        "--set", "fusedDecorator=METRICS,UNKNOWN", "lib.Clock"));
+
+    assertEquals(Arrays.asList("lib/ClockFusedDecorator.java", "lib/ClockInterface.java"), list(output));
+    String decorator = read(new File(output, "lib/ClockFusedDecorator.java"));
+    assertTrue(decorator.contains("this.locks.writeLockAll();"));
+    assertTrue(decorator.contains("public List<MetricsSnapshot> metricsSnapshot()"));
+  }
+
+  @Test
+  public void shouldRejectPerClassNames() throws IOException {
+    File jar = createJar("package lib;\npublic final class Clock {}\n");
+
+    assertEquals(2, run("--jars", jar.getPath(), "--output", temporaryFolder.getRoot().getPath(),
+        "--set", "name=Clock", "lib.Clock"));
+    assertEquals(2, run("--jars", jar.getPath(), "--output", temporaryFolder.getRoot().getPath(),
+        "--set", "createUnknown=true", "lib.Clock"));
+    assertEquals(2, run("--jars", jar.getPath(), "--output", temporaryFolder.getRoot().getPath(),
+        "--set", "specialize=T=long", "lib.Clock"));
+  }
+
+  private static int run(String... args) {
+    return BulkGenerator.run(args, new PrintStream(new ByteArrayOutputStream()));
+  }
+
+  /**
+   * Compiles the sources and packs the class files into a jar.
+   */
+  private File createJar(String... sources) throws IOException {
+    File sourceDirectory = temporaryFolder.newFolder();
+    File classDirectory = temporaryFolder.newFolder();
+    List<String> arguments = Stream.of("-d", classDirectory.getPath()).collect(Collectors.toList());
+    for (String source : sources) {
+      String packageName = source.substring("package ".length(), source.indexOf(';'));
+      String className = source.replaceFirst("(?s).*?class (\\w+).*", "$1");
+      File file = new File(sourceDirectory, packageName.replace('.', '/') + "/" + className + ".java");
+      Files.createDirectories(file.getParentFile().toPath());
+      Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+      arguments.add(file.getPath());
+    }
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[0])));
+
+    File jar = temporaryFolder.newFile("lib.jar");
+    Path classes = classDirectory.toPath();
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()));
+         Stream<Path> files = Files.walk(classes)) {
+      for (Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+        out.putNextEntry(new ZipEntry(classes.relativize(file).toString().replace(File.separatorChar, '/')));
+        Files.copy(file, (OutputStream) out);
+        out.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  private static List<String> list(File directory) throws IOException {
+    Path root = directory.toPath();
+    try (Stream<Path> files = Files.walk(root)) {
+      return files.filter(Files::isRegularFile)
+          .map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,74 @@
+package com.highstakes.autointerface;
+
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SourceFileWriterTest {
+
+  @Test
+  public void shouldReportFilesThatFailToRender() throws IOException {
+    for (int parallelism : new int[] {1, 2}) {
+      List<String> errors = new ArrayList<>();
+      SourceFileWriter writer = new SourceFileWriter(null, new RecordingMessager(errors), parallelism,
+          ProcessingReport.DISABLED);
+
+      List<String> sources = writer.render(Arrays.asList(
+          JavaFile.builder("result", TypeSpec.interfaceBuilder("Valid").build()).build(),
+          // Unindenting below zero only fails once the file is rendered
+          JavaFile.builder("result", TypeSpec.classBuilder("Broken")
+              .addMethod(MethodSpec.methodBuilder("run").addCode("$<").build())
+              .build()).build()));
+
+      assertTrue(sources.get(0).contains("interface Valid"));
+      assertNull(sources.get(1));
+      assertEquals(1, errors.size());
+      assertTrue(errors.get(0), errors.get(0).startsWith("AutoInterface: Error rendering result.Broken: "));
+    }
+  }
+
+  private static final class RecordingMessager implements Messager {
+    private final List<String> errors;
+
+    RecordingMessager(List<String> errors) {
+      this.errors = errors;
+    }
+
+    @Override
+    public void printMessage(Diagnostic.Kind kind, CharSequence msg) {
+      if (kind == Diagnostic.Kind.ERROR) {
+        errors.add(msg.toString());
+      }
+    }
+
+    @Override
+    public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e) {
+      printMessage(kind, msg);
+    }
+
+    @Override
+    public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a) {
+      printMessage(kind, msg);
+    }
+
+    @Override
+    public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a,
+        AnnotationValue v) {
+      printMessage(kind, msg);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+
+public class AsyncCallsTest {
+
+  @Test
+  public void shouldCompleteWithResult() throws Exception {
+    assertEquals("result", AsyncCalls.call(AsyncCalls.defaultExecutor(), () -> "result").get());
+    assertNull(AsyncCalls.run(AsyncCalls.defaultExecutor(), () -> { }).get());
+  }
+
+  @Test
+  public void shouldCompleteWithCheckedException() throws Exception {
+    IOException exception = new IOException("failed");
+    CompletableFuture<String> future = AsyncCalls.call(Runnable::run, () -> {
+      throw exception;
+    });
+
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertSame(exception, e.getCause());
+    }
+  }
+
+  @Test
+  public void shouldCompleteWithRejection() throws Exception {
+    RejectedExecutionException rejection = new RejectedExecutionException();
+    CompletableFuture<Void> future = AsyncCalls.run(task -> {
+      throw rejection;
+    }, () -> { });
+
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertSame(rejection, e.getCause());
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AutoInterfaceIndexTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void shouldMergeIndexesOfEveryClassPathEntry() throws IOException {
+    AutoInterfaceIndex index = load(
+        index("first", AutoInterfaceIndex.HEADER,
+            "test.UserServiceInterface test.UserService test.UserServiceDecorator test.UserServiceAsync"),
+        index("second", AutoInterfaceIndex.HEADER,
+            "",
+            "test.OrderServiceInterface test.OrderService"));
+
+    assertEquals(new HashSet<>(Arrays.asList("test.UserServiceInterface", "test.OrderServiceInterface")),
+        index.interfaces());
+    assertEquals("test.UserService", index.implementationOf("test.UserServiceInterface"));
+    assertEquals("test.OrderService", index.implementationOf("test.OrderServiceInterface"));
+    assertEquals("test.OrderServiceInterface", index.interfaceOf("test.OrderService"));
+    assertEquals(Arrays.asList("test.UserServiceDecorator", "test.UserServiceAsync"),
+        index.generatedTypesOf("test.UserService"));
+    assertTrue(index.generatedTypesOf("test.OrderService").isEmpty());
+    assertNull(index.implementationOf("test.Unknown"));
+    assertEquals(Collections.emptyList(), index.generatedTypesOf("test.Unknown"));
+  }
+
+  @Test
+  public void shouldIgnoreSameBindingInSeveralEntries() throws IOException {
+    AutoInterfaceIndex index = load(
+        index("first", "test.UserServiceInterface test.UserService"),
+        index("second", "test.UserServiceInterface test.UserService"));
+
+    assertEquals("test.UserService", index.implementationOf("test.UserServiceInterface"));
+  }
+
+  @Test
+  public void shouldRejectConflictingBindings() throws IOException {
+    try {
+      load(index("first", "test.UserServiceInterface test.UserService"),
+          index("second", "test.UserServiceInterface test.OtherUserService"));
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("test.UserServiceInterface is bound to both test.UserService and test.OtherUserService",
+          e.getMessage());
+    }
+  }
+
+  @Test
+  public void shouldLoadImplementationClass() throws IOException {
+    AutoInterfaceIndex index = load(index("first",
+        Runnable.class.getName() + " " + Counter.class.getName()));
+
+    assertSame(Counter.class, index.implementationOf(Runnable.class));
+    assertNull(index.implementationOf(AutoCloseable.class));
+  }
+
+  private AutoInterfaceIndex load(File... entries) throws IOException {
+    URL[] urls = new URL[entries.length];
+    for (int i = 0; i < entries.length; i++) {
+      urls[i] = entries[i].toURI().toURL();
+    }
+    return AutoInterfaceIndex.load(new URLClassLoader(urls, getClass().getClassLoader()));
+  }
+
+  private File index(String entry, String... lines) throws IOException {
+    File root = temporaryFolder.newFolder(entry);
+    File resource = new File(root, AutoInterfaceIndex.RESOURCE);
+    Files.createDirectories(resource.getParentFile().toPath());
+    Files.write(resource.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    return root;
+  }
+
+  public static class Counter implements Runnable {
+    @Override
+    public void run() {
+    }
+  }
+}
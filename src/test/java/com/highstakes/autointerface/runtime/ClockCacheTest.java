@@ -0,0 +1,91 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ClockCacheTest {
+
+  @Test
+  public void shouldReturnPutValues() {
+    ObjectCache<String, Integer> objects = new ObjectCache<>(16, 0);
+    LongCache<String> longs = new LongCache<>(16, 0);
+    PairCache<String, Integer, String> pairs = new PairCache<>(16, 0);
+    LongPairCache<String> longPairs = new LongPairCache<>(16, 0);
+
+    objects.put("a", 1);
+    longs.put(-1L, "minus one");
+    pairs.put("a", 1, "a1");
+    longPairs.put(1L, 2L, "12");
+
+    assertEquals(Integer.valueOf(1), objects.get("a"));
+    assertNull(objects.get("b"));
+    assertEquals("minus one", longs.get(-1L));
+    assertNull(longs.get(1L));
+    assertEquals("a1", pairs.get("a", 1));
+    assertNull(pairs.get("a", 2));
+    assertNull(pairs.get(null, 1));
+    assertEquals("12", longPairs.get(1L, 2L));
+    assertNull(longPairs.get(2L, 1L));
+  }
+
+  @Test
+  public void shouldReplaceValueOfSameKey() {
+    ObjectCache<java.util.List<Object>, String> cache = new ObjectCache<>(16, 0);
+    cache.put(Arrays.<Object>asList(1, "a"), "first");
+    cache.put(Arrays.<Object>asList(1, "a"), "second");
+
+    assertEquals("second", cache.get(Arrays.<Object>asList(1, "a")));
+  }
+
+  @Test
+  public void shouldNotCacheNull() {
+    LongCache<String> cache = new LongCache<>(16, 0);
+    cache.put(1L, null);
+
+    assertNull(cache.get(1L));
+  }
+
+  @Test
+  public void shouldStayBounded() {
+    LongCache<Long> cache = new LongCache<>(100, 0);
+    for (long key = 0; key < 10000; key++) {
+      cache.put(key, key);
+    }
+
+    int hits = 0;
+    for (long key = 0; key < 10000; key++) {
+      if (cache.get(key) != null) {
+        hits++;
+      }
+    }
+    assertEquals(128, cache.capacity());
+    assertTrue(hits <= cache.capacity());
+  }
+
+  @Test
+  public void shouldKeepRecentlyReadEntries() {
+    LongCache<Long> cache = new LongCache<>(8, 0);
+    for (long key = 0; key < 8; key++) {
+      cache.put(key, key);
+    }
+    for (int round = 0; round < 4; round++) {
+      cache.get(0L);
+      cache.put(100L + round, 0L);
+    }
+
+    assertEquals(Long.valueOf(0), cache.get(0L));
+  }
+
+  @Test
+  public void shouldExpireEntries() throws InterruptedException {
+    ObjectCache<String, String> cache = new ObjectCache<>(16, 1);
+    cache.put("a", "b");
+    Thread.sleep(5);
+
+    assertNull(cache.get("a"));
+  }
+}
@@ -0,0 +1,98 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class DrainableDelegateTest {
+  private static final int CALLERS = 4;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldReportIdleDelegateWhenRetired() {
+    List<String> drained = new ArrayList<>();
+    DrainableDelegate<String> delegate = new DrainableDelegate<>("old", drained::add);
+
+    delegate.retire();
+
+    assertEquals(Collections.singletonList("old"), drained);
+  }
+
+  @Test
+  public void shouldReportDelegateOnceLastCallExited() {
+    List<String> drained = new ArrayList<>();
+    DrainableDelegate<String> delegate = new DrainableDelegate<>("old", drained::add);
+
+    assertTrue(delegate.enter());
+    assertTrue(delegate.enter());
+    delegate.retire();
+    delegate.exit();
+    assertEquals(Collections.emptyList(), drained);
+    delegate.exit();
+
+    assertEquals(Collections.singletonList("old"), drained);
+    assertEquals(0, delegate.running());
+  }
+
+  @Test
+  public void shouldNotEnterRetiredDelegate() {
+    List<String> drained = new ArrayList<>();
+    DrainableDelegate<String> delegate = new DrainableDelegate<>("old", drained::add);
+
+    delegate.retire();
+
+    assertFalse(delegate.enter());
+    assertEquals(Collections.singletonList("old"), drained);
+    assertEquals(0, delegate.running());
+  }
+
+  @Test
+  public void shouldNeverRunCallsOnReportedDelegate() throws Exception {
+    AtomicInteger reports = new AtomicInteger();
+    AtomicBoolean reported = new AtomicBoolean();
+    AtomicInteger callsAfterReport = new AtomicInteger();
+    DrainableDelegate<String> delegate = new DrainableDelegate<>("old", it -> {
+      reported.set(true);
+      reports.incrementAndGet();
+    });
+
+    List<Future<?>> callers = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      callers.add(executor.submit(() -> {
+        while (delegate.enter()) {
+          if (reported.get()) {
+            callsAfterReport.incrementAndGet();
+          }
+          delegate.exit();
+        }
+      }));
+    }
+    Thread.sleep(20);
+    delegate.retire();
+    for (Future<?> caller : callers) {
+      caller.get(5, TimeUnit.SECONDS);
+    }
+
+    assertEquals(1, reports.get());
+    assertEquals(0, callsAfterReport.get());
+    assertEquals(0, delegate.running());
+  }
+}
@@ -0,0 +1,138 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class HedgedMethodTest {
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldReturnBackupResultWhenPrimaryIsSlow() throws Exception {
+    HedgedMethod method = new HedgedMethod("find(java.lang.String)",
+        HedgingPolicy.fixedDelay(10, TimeUnit.MILLISECONDS).withExecutor(executor));
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    String result = method.call(() -> {
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return "primary";
+    }, () -> "backup");
+
+    assertEquals("backup", result);
+    assertEquals(1, method.calls());
+    assertEquals(1, method.hedges());
+    assertEquals(1, method.hedgeWins());
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test
+  public void shouldRunPrimaryOnCallingThread() {
+    HedgedMethod method = new HedgedMethod("find(java.lang.String)",
+        HedgingPolicy.fixedDelay(5, TimeUnit.SECONDS).withExecutor(executor));
+    Thread caller = Thread.currentThread();
+
+    assertSame(caller, method.call(Thread::currentThread, () -> {
+      throw new AssertionError("Backup called");
+    }));
+  }
+
+  @Test
+  public void shouldSendBackupRightAwayWhenPrimaryFailsFast() {
+    HedgedMethod method = new HedgedMethod("find(java.lang.String)",
+        HedgingPolicy.fixedDelay(1, TimeUnit.HOURS).withExecutor(executor));
+
+    String result = method.call(() -> {
+      throw new IOException("primary");
+    }, () -> "backup");
+
+    assertEquals("backup", result);
+    assertEquals(1, method.hedges());
+    assertEquals(1, method.hedgeWins());
+  }
+
+  @Test
+  public void shouldNotHedgeFastCalls() {
+    HedgedMethod method = new HedgedMethod("find(java.lang.String)",
+        HedgingPolicy.fixedDelay(5, TimeUnit.SECONDS).withExecutor(executor));
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals("primary", method.call(() -> "primary", () -> {
+        throw new AssertionError("Backup called");
+      }));
+    }
+
+    assertEquals(10, method.calls());
+    assertEquals(0, method.hedges());
+    assertEquals(0, method.hedgeWins());
+  }
+
+  @Test
+  public void shouldReturnPrimaryResultWhenBackupFails() {
+    HedgedMethod method = new HedgedMethod("find(java.lang.String)",
+        HedgingPolicy.fixedDelay(0, TimeUnit.MILLISECONDS).withExecutor(executor));
+
+    String result = method.call(() -> {
+      Thread.sleep(50);
+      return "primary";
+    }, () -> {
+      throw new IOException("backup");
+    });
+
+    assertEquals("primary", result);
+    assertEquals(1, method.hedges());
+    assertEquals(0, method.hedgeWins());
+  }
+
+  @Test
+  public void shouldRethrowFirstErrorWhenBothCallsFail() {
+    HedgedMethod method = new HedgedMethod("run()",
+        HedgingPolicy.fixedDelay(0, TimeUnit.MILLISECONDS).withExecutor(executor));
+    IOException primaryError = new IOException("primary");
+
+    try {
+      method.run(() -> {
+        throw primaryError;
+      }, () -> {
+        Thread.sleep(50);
+        throw new IOException("backup");
+      });
+      fail();
+    } catch (Throwable e) {
+      assertSame(primaryError, e);
+    }
+  }
+
+  @Test
+  public void shouldUpdatePercentileDelay() {
+    HedgedMethod method = new HedgedMethod("find(java.lang.String)",
+        HedgingPolicy.percentile(50, 5, TimeUnit.SECONDS).withExecutor(executor));
+
+    assertEquals(TimeUnit.SECONDS.toNanos(5), method.delayNanos());
+    for (int i = 0; i < HedgedMethod.UPDATE_INTERVAL; i++) {
+      method.call(() -> "primary", () -> "backup");
+    }
+
+    assertTrue(method.delayNanos() < TimeUnit.SECONDS.toNanos(5));
+    assertEquals(0, method.hedges());
+  }
+}
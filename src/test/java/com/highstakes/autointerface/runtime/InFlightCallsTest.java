@@ -0,0 +1,120 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class InFlightCallsTest {
+  private static final int CALLERS = 16;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldShareCallAmongConcurrentCallersWithEqualKeys() throws Exception {
+    InFlightCalls<String> calls = new InFlightCalls<>();
+    AtomicInteger invocations = new AtomicInteger();
+
+    List<CompletableFuture<String>> results = callConcurrently(calls, "key", () -> {
+      invocations.incrementAndGet();
+      return "value";
+    });
+
+    for (CompletableFuture<String> result : results) {
+      assertEquals("value", result.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, invocations.get());
+    assertEquals(0, calls.size());
+  }
+
+  @Test
+  public void shouldPassCheckedExceptionToEveryCaller() throws Exception {
+    InFlightCalls<String> calls = new InFlightCalls<>();
+    IOException error = new IOException("unavailable");
+
+    List<CompletableFuture<String>> results = callConcurrently(calls, null, () -> {
+      throw error;
+    });
+
+    for (CompletableFuture<String> result : results) {
+      try {
+        result.get(5, TimeUnit.SECONDS);
+        fail();
+      } catch (ExecutionException e) {
+        assertSame(error, e.getCause());
+      }
+    }
+    assertEquals(0, calls.size());
+  }
+
+  @Test
+  public void shouldCallAgainOnceCallCompleted() {
+    InFlightCalls<Integer> calls = new InFlightCalls<>();
+    AtomicInteger invocations = new AtomicInteger();
+
+    assertEquals(1, (int) calls.execute(1, invocations::incrementAndGet));
+    assertEquals(2, (int) calls.execute(1, invocations::incrementAndGet));
+    assertEquals(0, calls.size());
+  }
+
+  @Test
+  public void shouldNotShareCallsWithDifferentKeys() throws Exception {
+    InFlightCalls<String> calls = new InFlightCalls<>();
+    CountDownLatch running = new CountDownLatch(2);
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> calls.execute("first", () -> {
+      running.countDown();
+      running.await();
+      return "first";
+    }), executor);
+    CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> calls.execute("second", () -> {
+      running.countDown();
+      running.await();
+      return "second";
+    }), executor);
+
+    assertEquals("first", first.get(5, TimeUnit.SECONDS));
+    assertEquals("second", second.get(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Calls with the same key on every caller thread. The call that runs returns once every caller arrived and had
+   * time to find it in flight.
+   */
+  private <V> List<CompletableFuture<V>> callConcurrently(InFlightCalls<V> calls, Object key,
+      InFlightCalls.Call<V> call) {
+    AtomicInteger arrived = new AtomicInteger();
+    InFlightCalls.Call<V> slowCall = () -> {
+      while (arrived.get() < CALLERS) {
+        Thread.sleep(1);
+      }
+      Thread.sleep(50);
+      return call.call();
+    };
+    List<CompletableFuture<V>> results = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      results.add(CompletableFuture.supplyAsync(() -> {
+        arrived.incrementAndGet();
+        return calls.execute(key, slowCall);
+      }, executor));
+    }
+    return results;
+  }
+}
@@ -0,0 +1,72 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MethodMetricsTest {
+
+  @Test
+  public void shouldCountCallsAndErrors() {
+    MethodMetrics metrics = new MethodMetrics("find(int)", 1);
+    for (int i = 0; i < 3; i++) {
+      metrics.stop(metrics.start());
+    }
+    metrics.error();
+
+    MetricsSnapshot snapshot = metrics.snapshot();
+    assertEquals("find(int)", snapshot.method());
+    assertEquals(3, snapshot.calls());
+    assertEquals(1, snapshot.errors());
+    assertEquals(3, snapshot.sampledCalls());
+  }
+
+  @Test
+  public void shouldCountEveryCallButSampleLatencies() {
+    MethodMetrics metrics = new MethodMetrics("find(int)", 1000);
+    for (int i = 0; i < 10000; i++) {
+      metrics.stop(metrics.start());
+    }
+
+    MetricsSnapshot snapshot = metrics.snapshot();
+    assertEquals(10000, snapshot.calls());
+    assertTrue(snapshot.sampledCalls() < 100);
+  }
+
+  @Test
+  public void shouldBucketLatenciesByPowerOfTwo() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(2);
+    histogram.record(3);
+    histogram.record(1000);
+
+    long[] expected = new long[LatencyHistogram.BUCKETS];
+    expected[0] = 1;
+    expected[1] = 1;
+    expected[2] = 2;
+    expected[10] = 1;
+    assertArrayEquals(expected, histogram.bucketCounts());
+    assertEquals(1006, histogram.totalNanos());
+    assertEquals(1000, histogram.maxNanos());
+  }
+
+  @Test
+  public void shouldReportPercentilesAsBucketUpperBounds() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100);
+    }
+    histogram.record(5000);
+    MetricsSnapshot snapshot = new MetricsSnapshot("find(int)", 100, 0, histogram.bucketCounts(),
+        histogram.totalNanos(), histogram.maxNanos());
+
+    assertEquals(127, snapshot.percentileNanos(50));
+    assertEquals(127, snapshot.percentileNanos(99));
+    assertEquals(5000, snapshot.percentileNanos(100));
+    assertEquals(149, snapshot.meanNanos(), 0.001);
+  }
+}
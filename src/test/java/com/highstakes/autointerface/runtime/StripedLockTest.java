@@ -0,0 +1,55 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.locks.StampedLock;
+import org.junit.Test;
+
+public class StripedLockTest {
+
+  @Test
+  public void shouldInvalidateOptimisticReadOnWrite() {
+    StripedLock locks = new StripedLock(1);
+    long stamp = locks.tryOptimisticRead();
+    assertTrue(locks.validate(stamp));
+
+    locks.writeLockAll();
+    assertEquals(0, locks.tryOptimisticRead());
+    locks.unlockWriteAll();
+
+    assertFalse(locks.validate(stamp));
+  }
+
+  @Test
+  public void shouldNotReadOptimisticallyAcrossStripes() {
+    assertEquals(0, new StripedLock(4).tryOptimisticRead());
+  }
+
+  @Test
+  public void shouldLockEveryStripe() {
+    StripedLock locks = new StripedLock(3);
+    locks.writeLockAll();
+    for (long key = 0; key < 16; key++) {
+      assertTrue(locks.stripe(key).isWriteLocked());
+    }
+    locks.unlockWriteAll();
+
+    locks.readLockAll();
+    StampedLock stripe = locks.stripe("key");
+    assertEquals(1, stripe.getReadLockCount());
+    assertEquals(0, stripe.tryWriteLock());
+    locks.unlockReadAll();
+    assertEquals(0, stripe.getReadLockCount());
+  }
+
+  @Test
+  public void shouldLockSameStripeForSameKey() {
+    StripedLock locks = new StripedLock(16);
+    long stamp = locks.stripe(42L).writeLock();
+
+    assertTrue(locks.stripe(42).isWriteLocked());
+    locks.stripe(42L).unlockWrite(stamp);
+  }
+}
@@ -0,0 +1,108 @@
+package com.highstakes.autointerface.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Test;
+
+public class WriteBehindQueueTest {
+
+  @Test
+  public void shouldExecuteCallsInOrderOnFlush() {
+    List<Integer> executed = new ArrayList<>();
+    try (WriteBehindQueue queue = new WriteBehindQueue(16, 4, 1000, WriteBehindQueue.Overflow.BLOCK, e -> { })) {
+      for (int i = 0; i < 100; i++) {
+        int value = i;
+        queue.enqueue(() -> executed.add(value));
+      }
+      queue.flush();
+
+      assertEquals(100, executed.size());
+      for (int i = 0; i < 100; i++) {
+        assertEquals(Integer.valueOf(i), executed.get(i));
+      }
+      assertEquals(0, queue.pending());
+    }
+  }
+
+  @Test
+  public void shouldExecuteCallsOfAllProducers() throws InterruptedException {
+    List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+    WriteBehindQueue queue = new WriteBehindQueue(64, 16, 1, WriteBehindQueue.Overflow.BLOCK, e -> { });
+    List<Thread> producers = new ArrayList<>();
+    for (int producer = 0; producer < 4; producer++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 1000; i++) {
+          queue.enqueue(() -> executed.add(1));
+        }
+      });
+      thread.start();
+      producers.add(thread);
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    queue.close();
+
+    assertEquals(4000, executed.size());
+  }
+
+  @Test
+  public void shouldApplyOverflowPolicy() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> executed = new CopyOnWriteArrayList<>();
+    WriteBehindQueue dropping = new WriteBehindQueue(2, 1, 1, WriteBehindQueue.Overflow.DROP, e -> { });
+    WriteBehindQueue callerRuns = new WriteBehindQueue(2, 1, 1, WriteBehindQueue.Overflow.CALLER_RUNS, e -> { });
+    for (WriteBehindQueue queue : new WriteBehindQueue[] {dropping, callerRuns}) {
+      CountDownLatch started = new CountDownLatch(1);
+      queue.enqueue(() -> {
+        started.countDown();
+        release.await();
+      });
+      started.await();
+      queue.enqueue(() -> executed.add("queued"));
+      queue.enqueue(() -> executed.add("queued"));
+      queue.enqueue(() -> executed.add(Thread.currentThread().getName()));
+    }
+
+    assertEquals(1, dropping.dropped());
+    assertEquals(Collections.singletonList(Thread.currentThread().getName()), executed);
+    release.countDown();
+    dropping.close();
+    callerRuns.close();
+  }
+
+  @Test
+  public void shouldPassExceptionsToErrorHandler() {
+    IOException exception = new IOException("failed");
+    List<Throwable> errors = new CopyOnWriteArrayList<>();
+    WriteBehindQueue queue = new WriteBehindQueue(16, 4, 1, WriteBehindQueue.Overflow.BLOCK, errors::add);
+    queue.enqueue(() -> {
+      throw exception;
+    });
+    queue.close();
+
+    assertEquals(1, errors.size());
+    assertSame(exception, errors.get(0));
+  }
+
+  @Test
+  public void shouldRejectCallsAfterClose() {
+    WriteBehindQueue queue = new WriteBehindQueue();
+    queue.close();
+
+    try {
+      queue.enqueue(() -> { });
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("WriteBehindQueue is closed", e.getMessage());
+    }
+  }
+}